@@ -0,0 +1,184 @@
+package de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView;
+
+import android.content.Intent;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.view.FrameMetrics;
+import android.view.Window;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import de.protop_solutions.vhdplus.vhdplus_remote.MainActivity;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Changes the values of 200 LED, RGB LED and display elements every 100 ms
+ * notifyValuesChanged must only bind the values and be at least as fast as notifyItemChanged
+ */
+@RunWith(AndroidJUnit4.class)
+public class ValueRebindBenchmark {
+
+    private static final int ELEMENTS = 200;
+    private static final int POLL_INTERVAL = 100;
+    private static final int POLLS = 100;
+
+    @Test
+    public void frameTimeAtPollRate_fullBindVsPayload() throws InterruptedException {
+        //Frame metrics need API 24
+        assumeTrue(Build.VERSION.SDK_INT >= Build.VERSION_CODES.N);
+        Intent intent = new Intent(InstrumentationRegistry.getInstrumentation().getTargetContext(), MainActivity.class);
+        //Closed port, so the dashboard of the activity doesn't get values
+        intent.putExtra("IP", "127.0.0.1");
+        intent.putExtra("Port", "9");
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(intent)) {
+            Run full = run(scenario, false);
+            Run payload = run(scenario, true);
+            assertTrue(full.frames.length > 0 && payload.frames.length > 0);
+            //Views and listeners are only bound again without payload
+            assertTrue(full.fullBinds > 0);
+            assertEquals(0, payload.fullBinds);
+            assertTrue("notifyItemChanged: " + describe(full.frames) + ", notifyValuesChanged: " + describe(payload.frames),
+                    p90(payload.frames) <= p90(full.frames));
+        }
+    }
+
+    private static class Run {
+        //Sorted total durations of frames in ns
+        long[] frames;
+        //Full binds while values changed, only used on main thread
+        int fullBinds;
+    }
+
+    /**
+     * Shows dashboard and changes all values every poll interval
+     * Returns frame durations and number of full binds
+     */
+    private Run run(ActivityScenario<MainActivity> scenario, boolean payload) throws InterruptedException {
+        Run result = new Run();
+        List<Long> durations = Collections.synchronizedList(new ArrayList<>());
+        HandlerThread metricsThread = new HandlerThread("FrameMetrics");
+        metricsThread.start();
+        Window.OnFrameMetricsAvailableListener metricsListener = (window, frameMetrics, dropCount) ->
+                durations.add(frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION));
+        CountDownLatch done = new CountDownLatch(1);
+
+        scenario.onActivity(activity -> {
+            ArrayList<Element> elements = createElements();
+            ElementListAdapter adapter = new ElementListAdapter(activity,
+                    new ElementRepository(LayoutCodec.FILE_NAME, elements), "127.0.0.1:9") {
+                @Override
+                public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+                    result.fullBinds++;
+                    super.onBindViewHolder(holder, position);
+                }
+            };
+            RecyclerView recyclerView = new RecyclerView(activity);
+            recyclerView.setLayoutManager(new LinearLayoutManager(activity));
+            recyclerView.getItemAnimator().setChangeDuration(0);
+            recyclerView.setAdapter(adapter);
+            activity.setContentView(recyclerView);
+            activity.getWindow().addOnFrameMetricsAvailableListener(metricsListener, new Handler(metricsThread.getLooper()));
+
+            Handler handler = new Handler(Looper.getMainLooper());
+            handler.postDelayed(new Runnable() {
+                int poll = 0;
+
+                @Override
+                public void run() {
+                    //Binds of first layout are not counted
+                    if (poll == 0) result.fullBinds = 0;
+                    for (int position = 0; position < elements.size(); position++) {
+                        setValue(elements.get(position), poll);
+                        if (payload) adapter.notifyValuesChanged(position);
+                        else adapter.notifyItemChanged(position);
+                    }
+                    if (++poll < POLLS) handler.postDelayed(this, POLL_INTERVAL);
+                    else done.countDown();
+                }
+            }, POLL_INTERVAL);
+        });
+
+        assertTrue(done.await(POLLS * POLL_INTERVAL * 5L, TimeUnit.MILLISECONDS));
+        //Last frames
+        Thread.sleep(2 * POLL_INTERVAL);
+        scenario.onActivity(activity -> activity.getWindow().removeOnFrameMetricsAvailableListener(metricsListener));
+        metricsThread.quitSafely();
+
+        synchronized (durations) {
+            result.frames = new long[durations.size()];
+            for (int i = 0; i < result.frames.length; i++) result.frames[i] = durations.get(i);
+        }
+        Arrays.sort(result.frames);
+        return result;
+    }
+
+    private static ArrayList<Element> createElements() {
+        ArrayList<Element> elements = new ArrayList<>();
+        for (int i = 0; i < ELEMENTS; i++) {
+            Element e = new Element();
+            switch (i % 3) {
+                case 0:
+                    e.setType(Element.TYPE_LED);
+                    e.setNames(new ArrayList<>(Arrays.asList("LED " + i, "#FF0000")));
+                    break;
+                case 1:
+                    e.setType(Element.TYPE_RGBLED);
+                    e.setNames(new ArrayList<>(Collections.singletonList("RGB LED " + i)));
+                    break;
+                default:
+                    e.setType(Element.TYPE_DISPLAY);
+                    e.setNames(new ArrayList<>(Collections.singletonList("Display " + i)));
+            }
+            e.setHooks(new ArrayList<>(Collections.singletonList("hook" + i)));
+            elements.add(e);
+        }
+        return elements;
+    }
+
+    private static void setValue(Element e, int poll) {
+        String value;
+        switch (e.getType()) {
+            case Element.TYPE_LED:
+                value = poll % 2 == 0 ? "1" : "0";
+                break;
+            case Element.TYPE_RGBLED:
+                value = poll % 2 == 0 ? "#00FF00" : "#0000FF";
+                break;
+            default:
+                value = "Value " + poll;
+        }
+        e.setValues(new ArrayList<>(Collections.singletonList(value)));
+    }
+
+    private static long p90(long[] durations) {
+        return durations[durations.length * 9 / 10];
+    }
+
+    private static String describe(long[] durations) {
+        if (durations.length == 0) return "no frames";
+        long sum = 0;
+        for (long d : durations) sum += d;
+        return String.format("%d frames, avg %.2f ms, p90 %.2f ms, max %.2f ms", durations.length,
+                sum / 1e6 / durations.length, p90(durations) / 1e6,
+                durations[durations.length - 1] / 1e6);
+    }
+}
@@ -33,6 +33,7 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView.Element;
+import de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView.ElementRepository;
 import de.protop_solutions.vhdplus.vhdplus_remote.SettingRecyclerView.Setting;
 import de.protop_solutions.vhdplus.vhdplus_remote.SettingRecyclerView.SettingListAdapter;
 
@@ -45,13 +46,10 @@ import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.Spinner;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 public class AddActivity extends AppCompatActivity {
 
@@ -63,10 +61,8 @@ public class AddActivity extends AppCompatActivity {
     private SettingListAdapter adapter;
     //List of settings for selected element type
     private ArrayList<Setting> settings;
-    //Hooks of elements in main activity depending on element type
-    private ArrayList<String>[] usedHooks = new ArrayList[12];
-    //Elements in list in main activity
-    private ArrayList<Element> elements;
+    //Elements in list in main activity with index of used hooks
+    private ElementRepository repository;
 
     private boolean edit = false;
     private Element editItem;
@@ -75,6 +71,7 @@ public class AddActivity extends AppCompatActivity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_add);
+        repository = ElementRepository.getInstance(this);
 
         Button saveButton = (Button) findViewById(R.id.saveButton);
         saveButton.setOnClickListener(new View.OnClickListener() {
@@ -84,6 +81,9 @@ public class AddActivity extends AppCompatActivity {
                 resultIntent.putExtra("type", typeSpinner.getSelectedItemPosition()+1);
                 resultIntent.putExtra("names", adapter.getNames());
                 resultIntent.putExtra("hooks", adapter.getHooks());
+                resultIntent.putExtra("pollInterval", adapter.getPollInterval());
+                resultIntent.putExtra("sliderRate", adapter.getSliderRate());
+                resultIntent.putExtra("device", adapter.getDevice());
                 setResult(Activity.RESULT_OK, resultIntent);
                 finish();
             }
@@ -122,12 +122,6 @@ public class AddActivity extends AppCompatActivity {
 
         recyclerView = (RecyclerView) findViewById(R.id.settingRecyclerView);
         createList();
-
-        try {
-            loadHooks();
-        } catch (IOException | ClassNotFoundException e) {
-            e.printStackTrace();
-        }
     }
 
     /**
@@ -177,9 +171,13 @@ public class AddActivity extends AppCompatActivity {
                 break;
         }
         loadSettings(s, editItem);
+        addPollSetting(editItem);
+        addSliderRateSetting(editItem);
+        addDeviceSetting(editItem);
 
         //Initialize recycler view adapter
-        adapter = new SettingListAdapter(this, settings, typeSpinner.getSelectedItemPosition()+1, usedHooks, recyclerView);
+        int type = typeSpinner.getSelectedItemPosition()+1;
+        adapter = new SettingListAdapter(this, settings, type, repository.getUsedHooks(type), recyclerView);
         recyclerView.setLayoutManager(new LinearLayoutManager(this.getApplication()));
         recyclerView.setAdapter(adapter);
     }
@@ -199,10 +197,8 @@ public class AddActivity extends AppCompatActivity {
             if (s.get(i * 2).contains("Hook")) {
                 if (e == null) {
                     h = 1;
-                    ArrayList<String> hooks = usedHooks[Element.
-                            getBaseType(typeSpinner.getSelectedItemPosition(), true)];
-                    for (; (hooks != null && hooks.contains(h + "")) ||
-                            newHooks.contains((h + "")); h++);
+                    Set<String> hooks = repository.getUsedHooks(typeSpinner.getSelectedItemPosition()+1);
+                    for (; hooks.contains(h + "") || newHooks.contains((h + "")); h++);
                     setting.setValue(h + "");
                     newHooks.add(h + "");
                 }else{
@@ -214,6 +210,7 @@ public class AddActivity extends AppCompatActivity {
                 if (e == null) setting.setValue(s.get(i * 2 + 1));
                 else {
                     if(e.getNames().size() > n) setting.setValue(e.getNames().get(n));
+                    else setting.setValue(s.get(i * 2 + 1));
                     n++;
                 }
             }
@@ -222,35 +219,41 @@ public class AddActivity extends AppCompatActivity {
     }
 
     /**
-     * Loads elements of main activity
-     * Searches elements for hooks
-     * @throws IOException
-     * @throws ClassNotFoundException
+     * Adds update interval after the element settings for elements that need data from wifi module
+     * @param e element to edit or null
      */
-    private void loadHooks() throws IOException, ClassNotFoundException {
-        loadElements();
-        for (Element e: elements) {
-            for (String s: e.getHooks()) {
-                if (usedHooks[Element.getBaseType(e.getType(),false)-1] == null)
-                    usedHooks[Element.getBaseType(e.getType(),false)-1] = new ArrayList<>();
-                usedHooks[Element.getBaseType(e.getType(),false)-1].add(s);
-            }
-        }
+    private void addPollSetting(Element e){
+        int type = typeSpinner.getSelectedItemPosition()+1;
+        if (!SettingListAdapter.hasPollSetting(type)) return;
+        Setting setting = new Setting();
+        setting.setName(getString(R.string.poll_interval));
+        setting.setValue((e != null && e.getType() == type ?
+                e.getPollInterval() : Element.DEFAULT_POLL_INTERVAL) + "");
+        settings.add(setting);
+    }
+
+    /**
+     * Adds values per second after the element settings for sliders
+     * @param e element to edit or null
+     */
+    private void addSliderRateSetting(Element e){
+        int type = typeSpinner.getSelectedItemPosition()+1;
+        if (!SettingListAdapter.hasSliderRateSetting(type)) return;
+        Setting setting = new Setting();
+        setting.setName(getString(R.string.slider_rate));
+        setting.setValue((e != null && e.getType() == type ?
+                e.getSliderRate() : Element.DEFAULT_SLIDER_RATE) + "");
+        settings.add(setting);
     }
 
     /**
-     * Loads elements from Layout.txt and saves them in the elements list
-     * @throws IOException
-     * @throws ClassNotFoundException
+     * Adds IP address (+ port) of wifi module as last setting, empty for module of connect activity
+     * @param e element to edit or null
      */
-    private void loadElements() throws IOException, ClassNotFoundException {
-        File file = new File(getFilesDir().getPath() + "/Layout.txt");
-        if(!file.exists()) file.createNewFile();
-        FileInputStream inStream = new FileInputStream(file);
-        ObjectInputStream objectInStream = new ObjectInputStream(inStream);
-        int count = objectInStream.readInt();
-        elements = new ArrayList<>();
-        for (int c=0; c < count; c++) elements.add((Element) objectInStream.readObject());
-        objectInStream.close();
+    private void addDeviceSetting(Element e){
+        Setting setting = new Setting();
+        setting.setName(getString(R.string.device));
+        setting.setValue(e != null ? e.getDevice() : "");
+        settings.add(setting);
     }
-}
\ No newline at end of file
+}
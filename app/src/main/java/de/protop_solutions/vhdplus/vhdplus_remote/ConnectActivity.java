@@ -23,27 +23,47 @@
     WITH THE Java Code OR THE USE OR OTHER DEALINGS IN THE Java Code.
 
     Description:
-    In this code the last IP and/or Port settings are loaded and the new settings are saved
+    In this code the dashboard profile is selected, the IP and/or Port settings of the profile
+    are loaded and the new settings are saved
+    Also saves for every IP address if data is sent over UDP
 */
 
 package de.protop_solutions.vhdplus.vhdplus_remote;
 
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView.ProfileIndex;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextUtils;
+import android.text.TextWatcher;
 import android.view.View;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.EditText;
+import android.widget.Spinner;
+
+import com.google.android.material.switchmaterial.SwitchMaterial;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
 
 public class ConnectActivity extends AppCompatActivity {
 
+    //IP addresses of wifi modules that receive data over UDP
+    private final HashSet<String> udpDevices = new HashSet<>();
+    //Dashboard profiles with layout file, IP and port
+    private ProfileIndex profiles;
+    //Names of profiles in profile spinner
+    private ArrayAdapter<String> profileNames;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -53,7 +73,9 @@ public class ConnectActivity extends AppCompatActivity {
         //Adds IP Address to intent extras
         findViewById(R.id.connectButton).setOnClickListener(view -> {
             final Intent intent = new Intent(getApplicationContext() , MainActivity.class);
+            putProfile(intent);
             intent.putExtra("IP", ((EditText) findViewById(R.id.editTextIP)).getText().toString());
+            intent.putStringArrayListExtra("UdpDevices", new ArrayList<>(udpDevices));
             startActivity(intent);
         });
 
@@ -61,8 +83,10 @@ public class ConnectActivity extends AppCompatActivity {
         //Adds IP Address and Port to intent extras
         findViewById(R.id.connectButtonMobile).setOnClickListener(view -> {
             final Intent intent = new Intent(getApplicationContext() , MainActivity.class);
+            putProfile(intent);
             intent.putExtra("IP", ((EditText) findViewById(R.id.editTextIP)).getText().toString());
             intent.putExtra("Port", ((EditText) findViewById(R.id.editTextPort)).getText().toString());
+            intent.putStringArrayListExtra("UdpDevices", new ArrayList<>(udpDevices));
             startActivity(intent);
         });
 
@@ -71,86 +95,167 @@ public class ConnectActivity extends AppCompatActivity {
             startActivity(intent);
         });
 
-        //Set editTextIP text to last IP address
+        //Save transport for current IP address after switch changed
+        SwitchMaterial switchUdp = findViewById(R.id.switchUdp);
+        switchUdp.setOnCheckedChangeListener((compoundButton, checked) -> {
+            String ip = ((EditText) findViewById(R.id.editTextIP)).getText().toString().trim();
+            if (checked) udpDevices.add(ip);
+            else udpDevices.remove(ip);
+        });
+
+        //Show saved transport of IP address after editTextIP changed
+        ((EditText) findViewById(R.id.editTextIP)).addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) { }
+
+            @Override
+            public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) { }
+
+            @Override
+            public void afterTextChanged(Editable editable) {
+                switchUdp.setChecked(udpDevices.contains(editable.toString().trim()));
+            }
+        });
+
+        //Set editTextIP and editTextPort text to IP address and port of last profile
         try {
-            loadLastIP();
-            loadLastPort();
+            profiles = ProfileIndex.load(getFilesDir());
         } catch (IOException e) {
             e.printStackTrace();
         }
-    }
-
-    @Override
-    protected void onStop(){
-        super.onStop();
-        //Saves current editTextIP text when activity stopped
-        //For example when "Connect" button pressed or application closed
-        //If application reopened -> can restore text
         try {
-            saveLastIP();
-            saveLastPort();
+            loadUdpDevices();
         } catch (IOException e) {
             e.printStackTrace();
         }
+        switchUdp.setChecked(udpDevices.contains(
+                ((EditText) findViewById(R.id.editTextIP)).getText().toString().trim()));
+        if (profiles != null) initProfiles();
     }
 
     /**
-     * Saves IP address from editTextIP in IP.txt
-     * @throws IOException
+     * Fills profile spinner and shows IP and port of selected profile
+     * Selecting another profile keeps the changed IP and port of the last profile
      */
-    private void saveLastIP() throws IOException {
-        File file = new File(getFilesDir().getPath() + "/IP.txt");
-        if(!file.exists()) file.createNewFile();
-        FileOutputStream stream = new FileOutputStream(file);
-        try {
-            stream.write(((EditText)findViewById(R.id.editTextIP)).getText().toString().getBytes());
-        } finally {
-            stream.close();
-        }
+    private void initProfiles(){
+        Spinner profileSpinner = findViewById(R.id.profileSpinner);
+        profileNames = new ArrayAdapter<>(this, R.layout.spinner_item, profiles.getNames());
+        profileNames.setDropDownViewResource(R.layout.spinner_item);
+        profileSpinner.setAdapter(profileNames);
+        profileSpinner.setSelection(profiles.getSelectedIndex());
+        showProfile();
+
+        profileSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> adapterView, View view, int i, long l) {
+                if (i == profiles.getSelectedIndex()) return;
+                storeProfile();
+                profiles.select(i);
+                showProfile();
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> adapterView) { }
+        });
+
+        //Add profile with name from dialog, the new profile starts with IP and port of the current profile
+        findViewById(R.id.addProfileButton).setOnClickListener(view -> {
+            EditText name = new EditText(this);
+            name.setSingleLine(true);
+            new AlertDialog.Builder(this)
+                    .setTitle(R.string.new_profile)
+                    .setView(name)
+                    .setPositiveButton(R.string.add, (dialog, which) -> {
+                        storeProfile();
+                        int index = profiles.add(name.getText().toString());
+                        profiles.select(index);
+                        profileNames.clear();
+                        profileNames.addAll(profiles.getNames());
+                        profileSpinner.setSelection(index);
+                        showProfile();
+                    })
+                    .setNegativeButton(android.R.string.cancel, null)
+                    .show();
+        });
     }
 
     /**
-     * Loads IP address from IP.txt and sets editTextIP text
-     * @throws IOException
+     * Shows IP and port of selected profile, default values if the profile has none
      */
-    private void loadLastIP() throws IOException {
-        File file = new File(getFilesDir().getPath() + "/IP.txt");
-        if(file.exists()) {
-            FileInputStream stream = new FileInputStream(file);
-            byte[] data = new byte[(int) file.length()];
-            stream.read(data);
-            stream.close();
-            ((EditText)findViewById(R.id.editTextIP)).setText(new String(data, StandardCharsets.UTF_8));
+    private void showProfile(){
+        ProfileIndex.Profile profile = profiles.getSelected();
+        ((EditText) findViewById(R.id.editTextIP)).setText(profile.getIp().isEmpty() ?
+                getString(R.string.ip_default) : profile.getIp());
+        ((EditText) findViewById(R.id.editTextPort)).setText(profile.getPort().isEmpty() ?
+                getString(R.string.port_default) : profile.getPort());
+    }
+
+    /**
+     * Saves IP and port of editTextIP and editTextPort in selected profile
+     */
+    private void storeProfile(){
+        if (profiles == null) return;
+        ProfileIndex.Profile profile = profiles.getSelected();
+        profile.setIp(((EditText) findViewById(R.id.editTextIP)).getText().toString());
+        profile.setPort(((EditText) findViewById(R.id.editTextPort)).getText().toString());
+    }
+
+    /**
+     * Adds layout file and name of selected profile to intent extras of MainActivity
+     * @param intent
+     */
+    private void putProfile(Intent intent){
+        if (profiles == null) return;
+        storeProfile();
+        intent.putExtra("Profile", profiles.getSelected().getLayoutFile());
+        intent.putExtra("ProfileName", profiles.getSelected().getName());
+    }
+
+    @Override
+    protected void onStop(){
+        super.onStop();
+        //Saves current editTextIP and editTextPort text in profile when activity stopped
+        //For example when "Connect" button pressed or application closed
+        //If application reopened -> can restore text
+        try {
+            storeProfile();
+            if (profiles != null) profiles.save();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        try {
+            saveUdpDevices();
+        } catch (IOException e) {
+            e.printStackTrace();
         }
     }
 
     /**
-     * Saves Port from editTextPort in Port.txt
+     * Saves IP addresses of wifi modules that receive data over UDP in Transport.txt
+     * One IP address per line
      * @throws IOException
      */
-    private void saveLastPort() throws IOException {
-        File file = new File(getFilesDir().getPath() + "/Port.txt");
+    private void saveUdpDevices() throws IOException {
+        File file = new File(getFilesDir().getPath() + "/Transport.txt");
         if(!file.exists()) file.createNewFile();
         FileOutputStream stream = new FileOutputStream(file);
         try {
-            stream.write(((EditText)findViewById(R.id.editTextPort)).getText().toString().getBytes());
+            stream.write(TextUtils.join("\n", udpDevices).getBytes(StandardCharsets.UTF_8));
         } finally {
             stream.close();
         }
     }
 
     /**
-     * Loads Port from Port.txt and sets editTextPort text
+     * Loads IP addresses of wifi modules that receive data over UDP from Transport.txt
      * @throws IOException
      */
-    private void loadLastPort() throws IOException {
-        File file = new File(getFilesDir().getPath() + "/Port.txt");
+    private void loadUdpDevices() throws IOException {
+        File file = new File(getFilesDir().getPath() + "/Transport.txt");
         if(file.exists()) {
-            FileInputStream stream = new FileInputStream(file);
-            byte[] data = new byte[(int) file.length()];
-            stream.read(data);
-            stream.close();
-            ((EditText)findViewById(R.id.editTextPort)).setText(new String(data, StandardCharsets.UTF_8));
+            for (String ip : ProfileIndex.readText(file).split("\n")) {
+                if (ip.trim().length() > 0) udpDevices.add(ip.trim());
+            }
         }
     }
-}
\ No newline at end of file
+}
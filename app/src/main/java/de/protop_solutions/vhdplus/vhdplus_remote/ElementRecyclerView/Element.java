@@ -33,6 +33,9 @@ import java.util.ArrayList;
 
 public class Element implements Serializable {
 
+    //Same as computed before, so saved layouts can still be loaded when methods are added
+    private static final long serialVersionUID = -4241237033102704716L;
+
     public static final int TYPE_BUTTON = 1;
     public static final int TYPE_BUTTON3 = 2;
     public static final int TYPE_LED = 3;
@@ -46,7 +49,36 @@ public class Element implements Serializable {
     public static final int TYPE_JOYSTICK = 11;
     public static final int TYPE_CONSOLE = 12;
 
+    //Intervals in ms that elements can be updated with, other intervals are rounded down
+    public static final int[] POLL_TIERS = {50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000, 60000};
+    //Interval in ms of elements without own interval
+    public static final int DEFAULT_POLL_INTERVAL = 500;
+    //Values per second that sliders send while dragged if no rate is set
+    public static final int DEFAULT_SLIDER_RATE = 10;
+
     private int type = 0;
+    //Interval in ms for requesting values from wifi module, 0 for default (also in layouts saved before)
+    private int pollInterval = 0;
+    //Values per second a slider sends while dragged, 0 to only send the value where it is released
+    private int sliderRate = DEFAULT_SLIDER_RATE;
+    //IP address (+ port) of wifi module for this element, null for module of connect activity
+    private String device = null;
+
+    //True while values are restored values of the last start and no new values were received
+    private transient boolean stale = false;
+
+    //Id for recycler view, only unique while the app is running
+    private transient long id = 0;
+    private static long lastId = 0;
+
+    /**
+     * Returns id that stays the same while the element exists
+     * @return
+     */
+    public long getId() {
+        if (id == 0) id = ++lastId;
+        return id;
+    }
 
     public int getType() {
         return type;
@@ -84,6 +116,83 @@ public class Element implements Serializable {
         this.values = values;
     }
 
+    /**
+     * Returns IP address (+ port) of wifi module for this element
+     * Empty for the module selected in connect activity (also in layouts saved before)
+     * @return
+     */
+    public String getDevice() {
+        return device != null ? device : "";
+    }
+
+    /**
+     * Sets IP address (+ port) of wifi module for this element, empty for module of connect activity
+     * @param device
+     */
+    public void setDevice(String device) {
+        this.device = device != null && device.trim().length() > 0 ? device.trim() : null;
+    }
+
+    /**
+     * Returns true if values are last known values of the last start and no new values were received
+     * @return
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+    public void setStale(boolean stale) {
+        this.stale = stale;
+    }
+
+    /**
+     * Returns interval in ms for requesting values from wifi module
+     * @return one of POLL_TIERS
+     */
+    public int getPollInterval() {
+        return pollInterval > 0 ? pollInterval : DEFAULT_POLL_INTERVAL;
+    }
+
+    /**
+     * Returns interval in ms set for this element, 0 for default interval
+     * @return
+     */
+    int getOwnPollInterval() {
+        return pollInterval;
+    }
+
+    /**
+     * Sets interval in ms for requesting values, rounded down to one of POLL_TIERS
+     * 0 sets default interval
+     * @param pollInterval
+     */
+    public void setPollInterval(int pollInterval) {
+        this.pollInterval = pollInterval > 0 ? POLL_TIERS[getPollTier(pollInterval)] : 0;
+    }
+
+    /**
+     * Returns values per second a slider sends while dragged, 0 to only send the released value
+     * @return
+     */
+    public int getSliderRate() {
+        return sliderRate;
+    }
+
+    public void setSliderRate(int sliderRate) {
+        this.sliderRate = Math.max(0, sliderRate);
+    }
+
+    /**
+     * Returns index in POLL_TIERS for interval in ms
+     * @param interval
+     * @return
+     */
+    public static int getPollTier(int interval) {
+        int tier = 0;
+        while (tier + 1 < POLL_TIERS.length && POLL_TIERS[tier + 1] <= interval) tier++;
+        return tier;
+    }
+
     /**
      * Returns type of element
      * E.g.: 3 buttons -> button, 10 RGB LEDs -> RGB LED
@@ -29,7 +29,6 @@
 
 package de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView;
 
-import android.annotation.SuppressLint;
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
@@ -52,16 +51,20 @@ import android.widget.Toast;
 import com.google.android.material.switchmaterial.SwitchMaterial;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 
 import androidx.annotation.NonNull;
 import androidx.localbroadcastmanager.content.LocalBroadcastManager;
+import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import de.protop_solutions.vhdplus.vhdplus_remote.R;
 import de.protop_solutions.vhdplus.vhdplus_remote.SettingRecyclerView.Setting;
 import de.protop_solutions.vhdplus.vhdplus_remote.WiFi.WiFiConnection;
+import de.protop_solutions.vhdplus.vhdplus_remote.WiFi.WiFiDevices;
+import de.protop_solutions.vhdplus.vhdplus_remote.WiFi.WiFiStream;
 import de.protop_solutions.vhdplus.vhdplus_remote.WiFi.WiFiTimer;
 
 public class ElementListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder>{
@@ -70,39 +73,80 @@ public class ElementListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
     private Context context;
     //Elements in recycler view
     private ArrayList<Element> elements;
+    //Changes element list and hook index
+    private ElementRepository repository;
 
-    //Object that handles requests to WiFi module
-    private WiFiConnection wifi;
-    //Timer that checks for new LED, Console, Display... data every half second
-    private WiFiTimer wifiTimer;
-    //Defined IP of wifi module
-    private String ip;
+    //Connection and timer for every wifi module, the timers check for new LED, Console, Display... data
+    //with the update interval of the elements
+    private WiFiDevices devices;
 
     //Last position in elements of console where user pressed send button
     int lastConsolePosition = 0;
 
+    //Payload of notifyItemChanged if only values of element changed
+    private static final Object PAYLOAD_VALUES = new Object();
+    //Alpha of elements that show restored values until the wifi module sends new values
+    private static final float STALE_ALPHA = 0.5f;
+
+    //Tells wifi timers which elements are visible, called after scrolling and layout changes
+    private final RecyclerView.OnScrollListener visibleListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+            RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+            if (layoutManager instanceof LinearLayoutManager) {
+                LinearLayoutManager linearLayoutManager = (LinearLayoutManager) layoutManager;
+                devices.setVisiblePositions(linearLayoutManager.findFirstVisibleItemPosition(),
+                        linearLayoutManager.findLastVisibleItemPosition());
+            }
+        }
+    };
+
+    //Add broadcast to swipe handler to disable swipe to delete/edit when slider is used
+    private final View.OnTouchListener sliderTouchListener = new View.OnTouchListener() {
+        @Override
+        public boolean onTouch(View view, MotionEvent motionEvent) {
+            Intent intent = new Intent("swipe");
+            boolean action = true;
+            if(motionEvent.getAction() == MotionEvent.ACTION_DOWN)
+                intent.putExtra("enable", false);
+            else if(motionEvent.getAction() == MotionEvent.ACTION_UP)
+                intent.putExtra("enable", true);
+            else action = false;
+            if (action)
+                LocalBroadcastManager.getInstance(context).sendBroadcast(intent);
+            return false;
+        }
+    };
+
     //Constructor
-    public ElementListAdapter(Context context, ArrayList<Element> elements, String ip){
+    public ElementListAdapter(Context context, ElementRepository repository, String ip){
         this.context = context;
-        this.elements = elements;
-        wifi = new WiFiConnection(context, elements);
-        wifiTimer = new WiFiTimer(context, this, wifi, ip, 500);
-        wifi.setListener(wifiTimer);
-        this.ip = ip;
+        this.repository = repository;
+        this.elements = repository.getElements();
+        devices = new WiFiDevices(context, this, elements, ip);
+        setHasStableIds(true);
+    }
+
+    /**
+     * Sends button, switch and slider data over UDP to the wifi modules with these IP addresses
+     * @param hosts
+     */
+    public void setUdpTransport(Set<String> hosts){
+        devices.setUdpTransport(hosts);
     }
 
     /**
      * Starts listening to wifi module for new element data
      */
     public void onStart(){
-        wifiTimer.startWiFiConnection();
+        devices.start();
     }
 
     /**
      * Stops listening to wifi module for new element data
      */
     public void onStop(){
-        wifiTimer.stopWiFiConnection();
+        devices.stop();
     }
 
     /**
@@ -170,166 +214,222 @@ public class ElementListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
 
     /**
      * Initializes elements depending on type
-     * Adds functions on button click or interaction with element
+     * Listeners are added once in the view holders and get the element of their current position
      * @param holder view holder for element to initialize
      * @param position position of element in element list
      */
     @Override
-    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, @SuppressLint("RecyclerView") int position) {
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        Element element = elements.get(position);
+        holder.itemView.setAlpha(element.isStale() ? STALE_ALPHA : 1f);
         switch (getItemViewType(position)){
             case Element.TYPE_BUTTON:
-                ((ButtonViewHolder) holder).setButtonDetails(elements.get(position));
-                ((ButtonViewHolder) holder).myButton.setOnClickListener(view -> {
-                    sendWiFi("b", elements.get(position).getHooks().get(0));
-                });
+                ((ButtonViewHolder) holder).setButtonDetails(element);
                 break;
             case Element.TYPE_BUTTON3:
-                ((Button3ViewHolder) holder).setButton3Details(elements.get(position));
-                ((Button3ViewHolder) holder).myButton1.setOnClickListener(view -> {
-                    sendWiFi("b", elements.get(position).getHooks().get(0));
-                });
-                ((Button3ViewHolder) holder).myButton2.setOnClickListener(view -> {
-                    sendWiFi("b", elements.get(position).getHooks().get(1));
-                });
-                ((Button3ViewHolder) holder).myButton3.setOnClickListener(view -> {
-                    sendWiFi("b", elements.get(position).getHooks().get(2));
-                });
+                ((Button3ViewHolder) holder).setButton3Details(element);
                 break;
             case Element.TYPE_LED:
-                ((LEDViewHolder) holder).setLEDDetails(elements.get(position));
+                ((LEDViewHolder) holder).setLEDDetails(element);
                 break;
             case Element.TYPE_LED10:
-                ((LED10ViewHolder) holder).setLED10Details(elements.get(position));
+                ((LED10ViewHolder) holder).setLED10Details(element);
                 break;
             case Element.TYPE_SWITCH:
-                ((SwitchViewHolder) holder).setButtonDetails(elements.get(position));
-                ((SwitchViewHolder) holder).mySwitch.setOnClickListener(view -> {
-                    sendWiFi("s", elements.get(position).getHooks().get(0) + "~" +
-                            (((SwitchViewHolder) holder).mySwitch.isChecked() ? 1:0));
-                });
+                ((SwitchViewHolder) holder).setButtonDetails(element);
                 break;
             case Element.TYPE_SWITCH3:
-                ((Switch3ViewHolder) holder).setSwitch3Details(elements.get(position));
-                ((Switch3ViewHolder) holder).mySwitch1.setOnClickListener(view -> {
-                    sendWiFi("s", elements.get(position).getHooks().get(0) + "~" +
-                            (((Switch3ViewHolder) holder).mySwitch1.isChecked() ? 1:0));
-                });
-                ((Switch3ViewHolder) holder).mySwitch2.setOnClickListener(view -> {
-                    sendWiFi("s", elements.get(position).getHooks().get(1) + "~" +
-                            (((Switch3ViewHolder) holder).mySwitch2.isChecked() ? 1:0));
-                });
-                ((Switch3ViewHolder) holder).mySwitch3.setOnClickListener(view -> {
-                    sendWiFi("s", elements.get(position).getHooks().get(2) + "~" +
-                            (((Switch3ViewHolder) holder).mySwitch3.isChecked() ? 1:0));
-                });
+                ((Switch3ViewHolder) holder).setSwitch3Details(element);
                 break;
             case Element.TYPE_RGBLED:
-                ((RGBLEDViewHolder) holder).setRGBLEDDetails(elements.get(position));
+                ((RGBLEDViewHolder) holder).setRGBLEDDetails(element);
                 break;
             case Element.TYPE_RGBLED10:
-                ((RGBLED10ViewHolder) holder).setRGBLED10Details(elements.get(position));
+                ((RGBLED10ViewHolder) holder).setRGBLED10Details(element);
                 break;
             case Element.TYPE_SLIDER:
-                ((SliderViewHolder) holder).setSliderDetails(elements.get(position));
-                //Add broadcast to swipe handler to disable swipe to delete/edit when slider is used
-                ((SliderViewHolder) holder).mySlider.setOnTouchListener(new View.OnTouchListener() {
-                    @Override
-                    public boolean onTouch(View view, MotionEvent motionEvent) {
-                        Intent intent = new Intent("swipe");
-                        boolean action = true;
-                        if(motionEvent.getAction() == MotionEvent.ACTION_DOWN)
-                            intent.putExtra("enable", false);
-                        else if(motionEvent.getAction() == MotionEvent.ACTION_UP)
-                            intent.putExtra("enable", true);
-                        else action = false;
-                        if (action)
-                            LocalBroadcastManager.getInstance(context).sendBroadcast(intent);
-                        return false;
-                    }
-                });
-                ((SliderViewHolder) holder).mySlider.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
-                    @Override
-                    public void onProgressChanged(SeekBar seekBar, int i, boolean b) { }
-                    @Override
-                    public void onStartTrackingTouch(SeekBar seekBar) { }
-                    @Override
-                    public void onStopTrackingTouch(SeekBar seekBar) {
-                        sendWiFi("i", elements.get(position).getHooks().get(0) + "~" +
-                                (((SliderViewHolder) holder).mySlider.getProgress()));
-                    }
-                });
+                ((SliderViewHolder) holder).setSliderDetails(element);
                 break;
             case Element.TYPE_DISPLAY:
-                ((DisplayViewHolder) holder).setDisplayDetails(elements.get(position));
+                ((DisplayViewHolder) holder).setDisplayDetails(element);
                 break;
             case Element.TYPE_JOYSTICK:
-                ((JoystickViewHolder) holder).setJoystickDetails(elements.get(position));
-                ((JoystickViewHolder) holder).myButtonF.setOnClickListener(view -> {
-                    sendWiFi("b", elements.get(position).getHooks().get(0));
-                });
-                ((JoystickViewHolder) holder).myButtonL.setOnClickListener(view -> {
-                    sendWiFi("b", elements.get(position).getHooks().get(1));
-                });
-                ((JoystickViewHolder) holder).myButtonS.setOnClickListener(view -> {
-                    sendWiFi("b", elements.get(position).getHooks().get(2));
-                });
-                ((JoystickViewHolder) holder).myButtonR.setOnClickListener(view -> {
-                    sendWiFi("b", elements.get(position).getHooks().get(3));
-                });
-                ((JoystickViewHolder) holder).myButtonB.setOnClickListener(view -> {
-                    sendWiFi("b", elements.get(position).getHooks().get(4));
-                });
+                ((JoystickViewHolder) holder).setJoystickDetails(element);
                 break;
             case Element.TYPE_CONSOLE:
-                ((ConsoleViewHolder) holder).setConsoleDetails(elements.get(position));
-                ((ConsoleViewHolder) holder).btnSend.setOnClickListener(view -> {
-                    lastConsolePosition = position;
-                    sendWiFi("c", elements.get(position).getHooks().get(0) + "~" +
-                            (((ConsoleViewHolder) holder).txtOut.getText().toString()));
-                });
-                ((ConsoleViewHolder) holder).txtOut.addTextChangedListener(new TextWatcher() {
-                    @Override
-                    public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) { }
-                    @Override
-                    public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-                        Element thisElement = new Element();
-                        for (Element e: elements){
-                            if (e.getType() == Element.TYPE_CONSOLE &&
-                                    e.getHooks().get(0) == ((ConsoleViewHolder) holder).hook) {
-                                thisElement = e;
-                                break;
-                            }
-                        }
-                        ArrayList<String> v = thisElement.getValues();
-                        if (v == null) v = new ArrayList<>();
-                        if (v.size() == 0) v.add("");
-                        if (v.size() > 1) v.set(1, charSequence.toString());
-                        else v.add(charSequence.toString());
-                        thisElement.setValues(v);
-                    }
+                ((ConsoleViewHolder) holder).setConsoleDetails(element);
+                break;
+        }
+    }
+
+    /**
+     * Returns element that is currently bound to view holder
+     * Returns null if the element was removed and the view holder is not bound anymore
+     * @param holder
+     * @return
+     */
+    private Element getElement(RecyclerView.ViewHolder holder) {
+        int position = holder.getBindingAdapterPosition();
+        if (position == RecyclerView.NO_POSITION || position >= elements.size()) return null;
+        return elements.get(position);
+    }
+
+    /**
+     * Sends hook of element that is bound to view holder (e.g. button pressed)
+     * @param holder
+     * @param type
+     * @param hookIndex index of hook in element
+     */
+    private void sendHook(RecyclerView.ViewHolder holder, String type, int hookIndex) {
+        Element element = getElement(holder);
+        if (element != null) sendWiFi(element, type, element.getHooks().get(hookIndex));
+    }
+
+    /**
+     * Sends hook and value of element that is bound to view holder (e.g. switch changed)
+     * @param holder
+     * @param type
+     * @param hookIndex index of hook in element
+     * @param value
+     */
+    private void sendHook(RecyclerView.ViewHolder holder, String type, int hookIndex, String value) {
+        Element element = getElement(holder);
+        if (element != null) sendWiFi(element, type, element.getHooks().get(hookIndex) + "~" + value);
+    }
+
+    /**
+     * Observes visible elements, so values of elements that are not visible are read less often
+     * @param recyclerView
+     */
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        recyclerView.addOnScrollListener(visibleListener);
+    }
+
+    /**
+     * Reads values of all elements again
+     * @param recyclerView
+     */
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        recyclerView.removeOnScrollListener(visibleListener);
+        devices.setVisiblePositions(-1, -1);
+    }
 
-                    @Override
-                    public void afterTextChanged(Editable editable) { }
-                });
+    /**
+     * Returns id of element that stays the same if the element is moved
+     * @param position position of element in element list
+     * @return
+     */
+    @Override
+    public long getItemId(int position) {
+        return elements.get(position).getId();
+    }
+
+    /**
+     * Updates only values of element if all payloads are value updates
+     * LED colors and value texts are set, names and listeners stay the same
+     * @param holder view holder for element to update
+     * @param position position of element in element list
+     * @param payloads payloads of notifyItemChanged calls since last bind
+     */
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        boolean valuesOnly = !payloads.isEmpty();
+        for (int i = 0; i < payloads.size(); i++) {
+            if (payloads.get(i) != PAYLOAD_VALUES) valuesOnly = false;
+        }
+        if (!valuesOnly) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        Element element = elements.get(position);
+        holder.itemView.setAlpha(element.isStale() ? STALE_ALPHA : 1f);
+        switch (getItemViewType(position)){
+            case Element.TYPE_LED:
+                ((LEDViewHolder) holder).setLEDValues(element);
+                break;
+            case Element.TYPE_LED10:
+                ((LED10ViewHolder) holder).setLED10Values(element);
                 break;
+            case Element.TYPE_RGBLED:
+                ((RGBLEDViewHolder) holder).setRGBLEDValues(element);
+                break;
+            case Element.TYPE_RGBLED10:
+                ((RGBLED10ViewHolder) holder).setRGBLED10Values(element);
+                break;
+            case Element.TYPE_DISPLAY:
+                ((DisplayViewHolder) holder).setDisplayValues(element);
+                break;
+            case Element.TYPE_CONSOLE:
+                ((ConsoleViewHolder) holder).setConsoleValues(element);
+                break;
+            default:
+                onBindViewHolder(holder, position);
         }
     }
 
     /**
-     * Send data to wifi module
+     * Notifies adapter that only values of element changed (e.g. new LED state from wifi module)
+     * View holder is updated with partial bind instead of full bind
+     * @param position position of element in element list
+     */
+    public void notifyValuesChanged(int position) {
+        notifyItemChanged(position, PAYLOAD_VALUES);
+    }
+
+    /**
+     * Send data to wifi module of element
      * Checks if Internet connection exists
+     * @param element
      * @param type
      * @param data
      */
-    private void sendWiFi(String type, String data){
+    private void sendWiFi(Element element, String type, String data){
+        WiFiTimer timer = devices.getTimer(element);
+        WiFiConnection wifi = timer.getConnection();
         if (wifi.checkConnection()) {
-            Toast.makeText(this.context, "Send to " + ip + ": " + data, Toast.LENGTH_SHORT).show();
-            wifi.sendData(ip, type, data);
+            if (wifi.sendData(timer.getIpAddress(), type, data)) {
+                Toast.makeText(this.context, "Send to " + timer.getIpAddress() + ": " + data, Toast.LENGTH_SHORT).show();
+                timer.onUserInput(element);
+            }
+            else
+                Toast.makeText(this.context, "WiFi Module Busy, Not Sent: " + data, Toast.LENGTH_SHORT).show();
         }
         else
             Toast.makeText(this.context, "No Internet Connection", Toast.LENGTH_SHORT).show();
     }
 
+    /**
+     * Sends final value of stream to wifi module of element after the running request
+     * Checks if Internet connection exists
+     * @param element
+     * @param stream
+     * @param data
+     */
+    private void streamWiFi(Element element, WiFiStream stream, String data){
+        WiFiTimer timer = devices.getTimer(element);
+        if (timer.getConnection().checkConnection()) {
+            Toast.makeText(this.context, "Send to " + timer.getIpAddress() + ": " + data, Toast.LENGTH_SHORT).show();
+            stream.finish(data);
+            timer.onUserInput(element);
+        }
+        else
+            Toast.makeText(this.context, "No Internet Connection", Toast.LENGTH_SHORT).show();
+    }
+
+    /**
+     * Saves value from wifi module, so it is restored at the next start
+     * @param element
+     * @param index index of value and hook
+     * @param value
+     */
+    public void saveValue(Element element, int index, String value){
+        repository.saveValue(element, index, value);
+    }
+
     /**
      * Last position in elements of console where user pressed send button
      * @return
@@ -344,9 +444,10 @@ public class ElementListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
      */
     public void addElement(Element element){
         int position = elements.size();
-        elements.add(element);
+        repository.add(position, element);
         notifyItemInserted(position);
         notifyItemRangeChanged(position, elements.size());
+        devices.onElementsChanged();
     }
 
     /**
@@ -355,10 +456,10 @@ public class ElementListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
      * @param position Position in element list
      */
     public void insertElement(Element element, int position){
-        if(position == elements.size()) elements.add(element);
-        else elements.add(position, element);
+        repository.add(position, element);
         notifyItemInserted(position);
         notifyItemRangeChanged(position, elements.size());
+        devices.onElementsChanged();
     }
 
     /**
@@ -366,8 +467,9 @@ public class ElementListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
      * @param position Position in element list
      */
     public void removeElement(int position) {
-        elements.remove(position);
+        repository.remove(position);
         notifyItemRemoved(position);
+        devices.onElementsChanged();
     }
 
     /**
@@ -394,8 +496,9 @@ public class ElementListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
      * @return
      */
     public boolean swapElement(int fromPosition, int toPosition) {
-        Collections.swap(elements, fromPosition, toPosition);
+        repository.swap(fromPosition, toPosition);
         notifyItemMoved(fromPosition, toPosition);
+        devices.onElementsChanged();
         return true;
     }
 
@@ -411,6 +514,7 @@ public class ElementListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
             super(itemView);
             txtName = itemView.findViewById(R.id.txtName);
             myButton = itemView.findViewById(R.id.myButton);
+            myButton.setOnClickListener(view -> sendHook(this, "b", 0));
         }
 
         void setButtonDetails(Element element) {
@@ -433,6 +537,9 @@ public class ElementListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
             myButton1 = itemView.findViewById(R.id.myButton1);
             myButton2 = itemView.findViewById(R.id.myButton2);
             myButton3 = itemView.findViewById(R.id.myButton3);
+            myButton1.setOnClickListener(view -> sendHook(this, "b", 0));
+            myButton2.setOnClickListener(view -> sendHook(this, "b", 1));
+            myButton3.setOnClickListener(view -> sendHook(this, "b", 2));
         }
 
         void setButton3Details(Element element) {
@@ -458,6 +565,10 @@ public class ElementListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
 
         void setLEDDetails(Element element) {
             txtName.setText(element.getNames().get(0));
+            setLEDValues(element);
+        }
+
+        void setLEDValues(Element element) {
             if (element.getValues() != null && element.getValues().size() > 0 &&
                     element.getValues().get(0).trim().equals("1")){
                 ledView.setColorFilter(Color.parseColor(element.getNames().get(1)));
@@ -490,6 +601,10 @@ public class ElementListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
         }
 
         void setLED10Details(Element element) {
+            setLED10Values(element);
+        }
+
+        void setLED10Values(Element element) {
             int s = element.getValues().size();
             for (int i = 0; i < 10; i ++){
                 if(element.getValues() != null && s > i && element.getValues().get(i).trim().equals("1"))
@@ -512,6 +627,7 @@ public class ElementListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
             super(itemView);
             txtName = itemView.findViewById(R.id.txtName);
             mySwitch = itemView.findViewById(R.id.mySwitch);
+            mySwitch.setOnClickListener(view -> sendHook(this, "s", 0, mySwitch.isChecked() ? "1" : "0"));
         }
 
         void setButtonDetails(Element element) {
@@ -533,6 +649,9 @@ public class ElementListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
             mySwitch1 = itemView.findViewById(R.id.mySwitch1);
             mySwitch2 = itemView.findViewById(R.id.mySwitch2);
             mySwitch3 = itemView.findViewById(R.id.mySwitch3);
+            mySwitch1.setOnClickListener(view -> sendHook(this, "s", 0, mySwitch1.isChecked() ? "1" : "0"));
+            mySwitch2.setOnClickListener(view -> sendHook(this, "s", 1, mySwitch2.isChecked() ? "1" : "0"));
+            mySwitch3.setOnClickListener(view -> sendHook(this, "s", 2, mySwitch3.isChecked() ? "1" : "0"));
         }
 
         void setSwitch3Details(Element element) {
@@ -558,6 +677,10 @@ public class ElementListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
 
         void setRGBLEDDetails(Element element) {
             txtName.setText(element.getNames().get(0));
+            setRGBLEDValues(element);
+        }
+
+        void setRGBLEDValues(Element element) {
             if (element.getValues() != null && element.getValues().size() > 0){
                 String c = element.getValues().get(0);
                 if (!c.startsWith("#")) c = "#" + c;
@@ -595,6 +718,10 @@ public class ElementListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
         }
 
         void setRGBLED10Details(Element element) {
+            setRGBLED10Values(element);
+        }
+
+        void setRGBLED10Values(Element element) {
             int s = element.getValues().size();
             for (int i = 0; i < 10; i ++){
                 if(element.getValues() != null && s > i) {
@@ -628,6 +755,10 @@ public class ElementListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
 
         void setDisplayDetails(Element element) {
             txtName.setText(element.getNames().get(0));
+            setDisplayValues(element);
+        }
+
+        void setDisplayValues(Element element) {
             if (element.getValues() != null && element.getValues().size() > 0) txtValue.setText(element.getValues().get(0));
         }
     }
@@ -639,15 +770,38 @@ public class ElementListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
 
         private TextView txtName;
         private SeekBar mySlider;
+        //Sends values while slider is dragged
+        private WiFiStream stream;
 
         SliderViewHolder(@NonNull View itemView) {
             super(itemView);
             txtName = itemView.findViewById(R.id.txtName);
             mySlider = itemView.findViewById(R.id.seekBar);
+            //Wifi module is set when the view holder is bound to an element
+            stream = new WiFiStream(null, null, "i");
+            mySlider.setOnTouchListener(sliderTouchListener);
+            mySlider.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
+                @Override
+                public void onProgressChanged(SeekBar seekBar, int i, boolean fromUser) {
+                    Element element = getElement(SliderViewHolder.this);
+                    if (fromUser && element != null && stream.isLive())
+                        stream.update(element.getHooks().get(0) + "~" + i);
+                }
+                @Override
+                public void onStartTrackingTouch(SeekBar seekBar) { }
+                @Override
+                public void onStopTrackingTouch(SeekBar seekBar) {
+                    Element element = getElement(SliderViewHolder.this);
+                    if (element != null)
+                        streamWiFi(element, stream, element.getHooks().get(0) + "~" + seekBar.getProgress());
+                }
+            });
         }
 
         void setSliderDetails(Element element) {
             txtName.setText(element.getNames().get(0));
+            stream.setRate(element.getSliderRate());
+            stream.setTarget(devices.getConnection(element), devices.getIpAddress(element));
         }
     }
 
@@ -669,6 +823,11 @@ public class ElementListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
             myButtonS = itemView.findViewById(R.id.myButtonS);
             myButtonR = itemView.findViewById(R.id.myButtonR);
             myButtonB = itemView.findViewById(R.id.myButtonB);
+            myButtonF.setOnClickListener(view -> sendHook(this, "b", 0));
+            myButtonL.setOnClickListener(view -> sendHook(this, "b", 1));
+            myButtonS.setOnClickListener(view -> sendHook(this, "b", 2));
+            myButtonR.setOnClickListener(view -> sendHook(this, "b", 3));
+            myButtonB.setOnClickListener(view -> sendHook(this, "b", 4));
         }
 
         void setJoystickDetails(Element element) {
@@ -688,14 +847,38 @@ public class ElementListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
         private TextView txtIn;
         private EditText txtOut;
         private Button btnSend;
-        private String hook;
 
         ConsoleViewHolder(@NonNull View itemView) {
             super(itemView);
             txtIn = itemView.findViewById(R.id.txtIn);
             txtOut = itemView.findViewById(R.id.txtOut);
             btnSend = itemView.findViewById(R.id.btnSend);
-            hook = "";
+            btnSend.setOnClickListener(view -> {
+                int position = getBindingAdapterPosition();
+                if (position == RecyclerView.NO_POSITION) return;
+                lastConsolePosition = position;
+                sendHook(this, "c", 0, txtOut.getText().toString());
+            });
+            //Keeps text that isn't sent yet in element, so it is restored after rebind
+            txtOut.addTextChangedListener(new TextWatcher() {
+                @Override
+                public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) { }
+                @Override
+                public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
+                    Element thisElement = getElement(ConsoleViewHolder.this);
+                    if (thisElement == null) return;
+                    ArrayList<String> v = thisElement.getValues();
+                    if (v == null) v = new ArrayList<>();
+                    if (v.size() > 1 && v.get(1).contentEquals(charSequence)) return;
+                    if (v.size() == 0) v.add("");
+                    if (v.size() > 1) v.set(1, charSequence.toString());
+                    else v.add(charSequence.toString());
+                    thisElement.setValues(v);
+                }
+
+                @Override
+                public void afterTextChanged(Editable editable) { }
+            });
         }
 
         void setConsoleDetails(Element element) {
@@ -706,7 +889,17 @@ public class ElementListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
             if (element.getValues() != null && element.getValues().size() > 1) txtOut.setText(element.getValues().get(1));
             else txtOut.setText("");
             txtOut.setSelection(txtOut.getText().length());
-            hook = element.getHooks().get(0);
+        }
+
+        void setConsoleValues(Element element) {
+            if (element.getValues() != null && element.getValues().size() > 0) txtIn.setText(element.getValues().get(0));
+            else txtIn.setText("");
+            //Only set text the user is typing if it changed (e.g. cleared after send)
+            String out = element.getValues() != null && element.getValues().size() > 1 ? element.getValues().get(1) : "";
+            if (!out.contentEquals(txtOut.getText())) {
+                txtOut.setText(out);
+                txtOut.setSelection(txtOut.getText().length());
+            }
         }
     }
 }
@@ -0,0 +1,259 @@
+/*
+    Name: ElementRepository
+    Rev: 1.0
+    Creator: Leon Beier
+    Date: 18.10.2026
+    Copyright (c) 2026 Protop Solutions UG. All right reserved.
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy of
+    this java code and associated documentation files (the "Java Code"), to deal in the
+    Java Code without restriction, including without limitation the rights to use,
+    copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+    Java Code, and to permit persons to whom the Java Code is furnished to do so,
+    subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Java Code.
+
+    THE Java Code IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+    FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+    COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+    AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+    WITH THE Java Code OR THE USE OR OTHER DEALINGS IN THE Java Code.
+
+
+    Description:
+    Element list of the selected profile, shared by MainActivity and AddActivity.
+    Loaded from the layout file of the profile once in background, after that the list is only changed here.
+    Only the elements of one profile are loaded, another profile replaces the repository.
+    Keeps an index of the used hooks for every base type (e.g. LED and 10 LEDs),
+    so the add activity doesn't read the layout file to find free hooks.
+    The last known values of the profile are restored from the value snapshot when it is loaded
+*/
+
+package de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Set;
+
+public class ElementRepository {
+
+    //Repository of the selected profile, created with the first call of getInstance
+    private static ElementRepository instance;
+
+    //Layout file of profile
+    private final String layoutFile;
+    //Elements in recycler view
+    private final ArrayList<Element> elements;
+    //Last known values of elements, null if values are not saved
+    private ValueSnapshot snapshot;
+    //True if the layout file couldn't be read, then the file is kept and nothing is saved
+    private boolean loadFailed = false;
+    //Number of elements that use a hook for every base type (index base type - 1)
+    private final ArrayList<HashMap<String, Integer>> hookCounts = new ArrayList<>();
+
+    /**
+     * Returns element list of the current profile
+     * The main activity loads the profile before other activities use it,
+     * the profile that was selected last is only read here if the app was restarted in another activity
+     * Has to be called on main thread
+     * @param context
+     * @return
+     */
+    public static ElementRepository getInstance(Context context) {
+        if (instance == null) instance = read(context.getApplicationContext().getFilesDir(), null);
+        return instance;
+    }
+
+    /**
+     * Loads element list of profile with layout file in background and calls listener on main thread
+     * The layout file is read on the thread that writes layouts after the waiting writes,
+     * and only if another profile was loaded before, else listener is called immediately
+     * Has to be called on main thread
+     * @param context
+     * @param layoutFile layout file of profile, null for the profile that was selected last
+     * @param listener
+     */
+    public static void load(Context context, String layoutFile, OnRepositoryLoaded listener) {
+        if (instance != null && !instance.loadFailed &&
+                (layoutFile == null || instance.layoutFile.equals(layoutFile))) {
+            listener.OnRepositoryLoaded(instance);
+            return;
+        }
+        if (instance != null) instance.flushValues();
+        File dir = context.getApplicationContext().getFilesDir();
+        Handler handler = new Handler(Looper.getMainLooper());
+        LayoutWriter.execute(() -> {
+            ElementRepository repository = read(dir, layoutFile);
+            handler.post(() -> {
+                //Another call may have loaded the same profile in the meantime
+                if (instance == null || instance.loadFailed || !instance.layoutFile.equals(repository.layoutFile))
+                    instance = repository;
+                listener.OnRepositoryLoaded(instance);
+            });
+        });
+    }
+
+    /**
+     * Reads elements and last known values of profile
+     * @param dir files directory of app
+     * @param layoutFile layout file of profile, null for the profile that was selected last
+     * @return
+     */
+    static ElementRepository read(File dir, String layoutFile) {
+        if (layoutFile == null) {
+            layoutFile = LayoutCodec.FILE_NAME;
+            try {
+                layoutFile = ProfileIndex.load(dir).getSelected().getLayoutFile();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        ArrayList<Element> elements;
+        try {
+            elements = LayoutCodec.load(dir, layoutFile);
+        } catch (IOException e) {
+            //Truncated file or file of a newer app, an empty layout must not replace it
+            e.printStackTrace();
+            ElementRepository repository = new ElementRepository(layoutFile, new ArrayList<>());
+            repository.loadFailed = true;
+            return repository;
+        }
+        ValueSnapshot snapshot = new ValueSnapshot(new File(dir, layoutFile + ValueSnapshot.SUFFIX));
+        try {
+            snapshot.restore(elements);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        ElementRepository repository = new ElementRepository(layoutFile, elements);
+        repository.snapshot = snapshot;
+        return repository;
+    }
+
+    ElementRepository(String layoutFile, ArrayList<Element> elements) {
+        this.layoutFile = layoutFile;
+        this.elements = elements;
+        for (int i = 0; i < Element.TYPE_CONSOLE; i++) hookCounts.add(new HashMap<>());
+        for (Element e : elements) addHooks(e);
+    }
+
+    /**
+     * Returns layout file of profile
+     * @return
+     */
+    public String getLayoutFile() {
+        return layoutFile;
+    }
+
+    /**
+     * Returns true if the layout file couldn't be read
+     * Changes of the element list are not saved then, so the file isn't overwritten
+     * @return
+     */
+    public boolean isLoadFailed() {
+        return loadFailed;
+    }
+
+    /**
+     * Returns element list, only change it with the functions of the repository
+     * @return
+     */
+    public ArrayList<Element> getElements() {
+        return elements;
+    }
+
+    /**
+     * Adds element at position
+     * @param position
+     * @param element
+     */
+    public void add(int position, Element element) {
+        elements.add(position, element);
+        addHooks(element);
+    }
+
+    /**
+     * Removes element at position
+     * @param position
+     * @return removed element
+     */
+    public Element remove(int position) {
+        Element element = elements.remove(position);
+        for (String hook : element.getHooks()) {
+            HashMap<String, Integer> counts = getHookCounts(element.getType());
+            Integer count = counts.get(hook);
+            if (count == null || count <= 1) counts.remove(hook);
+            else counts.put(hook, count - 1);
+        }
+        return element;
+    }
+
+    /**
+     * Swaps elements at positions
+     * @param fromPosition
+     * @param toPosition
+     */
+    public void swap(int fromPosition, int toPosition) {
+        Collections.swap(elements, fromPosition, toPosition);
+    }
+
+    /**
+     * Saves value from wifi module in value snapshot, so it is restored at the next start
+     * Has to be called on main thread
+     * @param element
+     * @param index index of value and hook
+     * @param value
+     */
+    public void saveValue(Element element, int index, String value) {
+        if (snapshot != null) snapshot.add(element, index, value);
+    }
+
+    /**
+     * Writes saved values that are not in the value snapshot yet in background
+     * Has to be called on main thread, e.g. when the activity is stopped
+     */
+    public void flushValues() {
+        if (snapshot != null) snapshot.flush();
+    }
+
+    /**
+     * Returns hooks that are used by elements with the same base type as type
+     * E.g. hooks of LEDs and 10 LEDs for type 10 LEDs
+     * The returned set changes with the element list
+     * @param type
+     * @return
+     */
+    public Set<String> getUsedHooks(int type) {
+        return Collections.unmodifiableSet(getHookCounts(type).keySet());
+    }
+
+    /**
+     * Adds hooks of element to hook index
+     * @param element
+     */
+    private void addHooks(Element element) {
+        HashMap<String, Integer> counts = getHookCounts(element.getType());
+        for (String hook : element.getHooks()) {
+            Integer count = counts.get(hook);
+            counts.put(hook, count == null ? 1 : count + 1);
+        }
+    }
+
+    /**
+     * Returns hook index of base type of element type
+     * @param type
+     * @return
+     */
+    private HashMap<String, Integer> getHookCounts(int type) {
+        return hookCounts.get(Element.getBaseType(type, false) - 1);
+    }
+}
@@ -0,0 +1,363 @@
+/*
+    Name: LayoutCodec
+    Rev: 1.0
+    Creator: Leon Beier
+    Date: 18.10.2026
+    Copyright (c) 2026 Protop Solutions UG. All right reserved.
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy of
+    this java code and associated documentation files (the "Java Code"), to deal in the
+    Java Code without restriction, including without limitation the rights to use,
+    copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+    Java Code, and to permit persons to whom the Java Code is furnished to do so,
+    subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Java Code.
+
+    THE Java Code IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+    FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+    COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+    AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+    WITH THE Java Code OR THE USE OR OTHER DEALINGS IN THE Java Code.
+
+
+    Description:
+    Saves and loads the element list in a compact binary format (Layout.bin or layout file of profile).
+    File: "VHDL", format version, number of elements, one record per element.
+    Record: length, then the fields in this order (numbers as varint, strings as UTF-8 with length):
+    type, update interval (0 = default), device, hooks, names, values (-1 = null), slider rate
+    New fields are only added at the end of the record, so older apps skip them
+    and newer apps use default values for records without them.
+    The version is only increased if old apps can't read the file anymore.
+    Layout.txt (Java serialization of older versions) is imported once
+*/
+
+package de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LayoutCodec {
+
+    //File with elements in this format (first profile)
+    public static final String FILE_NAME = "Layout.bin";
+    //Added to file name of the file that is written before it replaces the layout file,
+    //so the layout file is always complete
+    static final String TEMP_SUFFIX = ".tmp";
+    //File with serialized elements of older versions, deleted after import
+    public static final String LEGACY_FILE_NAME = "Layout.txt";
+
+    //First bytes of file ("VHDL")
+    static final int MAGIC = 0x5648444C;
+    //Format version, files of higher versions can't be read
+    static final int VERSION = 1;
+
+    /**
+     * Loads elements from layout file in directory
+     * If Layout.bin is loaded and there is only Layout.txt, it is imported, saved as Layout.bin and deleted
+     * Returns empty list if there is no layout
+     * @param dir files directory of app
+     * @param fileName Layout.bin or layout file of profile
+     * @return
+     * @throws IOException file can't be read
+     */
+    public static ArrayList<Element> load(File dir, String fileName) throws IOException {
+        File file = new File(dir, fileName);
+        if (file.exists()) return decode(readFile(file));
+        File legacy = new File(dir, LEGACY_FILE_NAME);
+        if (!fileName.equals(FILE_NAME) || !legacy.exists() || legacy.length() == 0) return new ArrayList<>();
+        ArrayList<Element> elements = importLegacy(legacy);
+        save(dir, fileName, elements);
+        legacy.delete();
+        return elements;
+    }
+
+    /**
+     * Saves elements in layout file in directory
+     * Blocks until the file is written, so don't call on main thread (see LayoutWriter)
+     * @param dir files directory of app
+     * @param fileName Layout.bin or layout file of profile
+     * @param elements
+     * @throws IOException
+     */
+    public static void save(File dir, String fileName, List<Element> elements) throws IOException {
+        write(dir, fileName, encode(elements));
+    }
+
+    /**
+     * Writes encoded elements to temp file, syncs it to disk and renames it to the layout file
+     * If the app is killed while writing, the last complete layout is kept
+     * @param dir files directory of app
+     * @param fileName
+     * @param data
+     * @throws IOException
+     */
+    static void write(File dir, String fileName, byte[] data) throws IOException {
+        File temp = new File(dir, fileName + TEMP_SUFFIX);
+        FileOutputStream stream = new FileOutputStream(temp);
+        try {
+            stream.write(data);
+            stream.getFD().sync();
+        } finally {
+            stream.close();
+        }
+        if (!temp.renameTo(new File(dir, fileName))) {
+            temp.delete();
+            throw new IOException(fileName + " can't be replaced");
+        }
+    }
+
+    /**
+     * Reads elements that older versions saved with ObjectOutputStream
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    static ArrayList<Element> importLegacy(File file) throws IOException {
+        ObjectInputStream objectInStream = new ObjectInputStream(new FileInputStream(file));
+        try {
+            int count = objectInStream.readInt();
+            ArrayList<Element> elements = new ArrayList<>(count);
+            for (int c = 0; c < count; c++) elements.add((Element) objectInStream.readObject());
+            return elements;
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Layout.txt contains no elements", e);
+        } finally {
+            objectInStream.close();
+        }
+    }
+
+    /**
+     * Returns elements in binary format
+     * @param elements
+     * @return
+     */
+    public static byte[] encode(List<Element> elements) {
+        Writer file = new Writer(64 + elements.size() * 48);
+        Writer record = new Writer(256);
+        file.writeInt(MAGIC);
+        file.writeVarint(VERSION);
+        file.writeVarint(elements.size());
+        for (Element e : elements) {
+            record.reset();
+            record.writeVarint(e.getType());
+            record.writeVarint(e.getOwnPollInterval());
+            record.writeString(e.getDevice());
+            record.writeList(e.getHooks());
+            record.writeList(e.getNames());
+            record.writeList(e.getValues());
+            record.writeVarint(e.getSliderRate());
+            file.writeVarint(record.size);
+            file.write(record.buffer, 0, record.size);
+        }
+        return file.toByteArray();
+    }
+
+    /**
+     * Returns elements of binary format
+     * @param data
+     * @return
+     * @throws IOException data is not a layout or has a newer version
+     */
+    public static ArrayList<Element> decode(byte[] data) throws IOException {
+        Reader reader = new Reader(data, 0, data.length);
+        if (data.length < 4 || reader.readInt() != MAGIC) throw new IOException("No layout file");
+        int version = reader.readVarint();
+        if (version > VERSION) throw new IOException("Layout version " + version + " is not supported");
+        int count = reader.readVarint();
+        ArrayList<Element> elements = new ArrayList<>(Math.min(count, data.length));
+        for (int c = 0; c < count; c++) {
+            int length = reader.readVarint();
+            Reader record = reader.slice(length);
+            Element e = new Element();
+            e.setType(record.readVarint());
+            //Fields that were added later are missing in older records
+            if (record.hasMore()) e.setPollInterval(record.readVarint());
+            if (record.hasMore()) e.setDevice(record.readString());
+            if (record.hasMore()) e.setHooks(record.readList());
+            if (record.hasMore()) e.setNames(record.readList());
+            if (record.hasMore()) e.setValues(record.readList());
+            if (record.hasMore()) e.setSliderRate(record.readVarint());
+            elements.add(e);
+        }
+        return elements;
+    }
+
+    /**
+     * Returns content of file
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    private static byte[] readFile(File file) throws IOException {
+        FileInputStream stream = new FileInputStream(file);
+        try {
+            byte[] data = new byte[(int) file.length()];
+            int read = 0;
+            while (read < data.length) {
+                int n = stream.read(data, read, data.length - read);
+                if (n < 0) throw new IOException("Layout file ended early");
+                read += n;
+            }
+            return data;
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * Growing byte buffer with write functions of the format
+     */
+    private static class Writer {
+
+        byte[] buffer;
+        int size = 0;
+
+        Writer(int capacity) {
+            buffer = new byte[capacity];
+        }
+
+        void reset() {
+            size = 0;
+        }
+
+        private void ensure(int length) {
+            if (size + length <= buffer.length) return;
+            byte[] b = new byte[Math.max(buffer.length * 2, size + length)];
+            System.arraycopy(buffer, 0, b, 0, size);
+            buffer = b;
+        }
+
+        void write(byte[] data, int offset, int length) {
+            ensure(length);
+            System.arraycopy(data, offset, buffer, size, length);
+            size += length;
+        }
+
+        void writeInt(int value) {
+            ensure(4);
+            buffer[size++] = (byte) (value >>> 24);
+            buffer[size++] = (byte) (value >>> 16);
+            buffer[size++] = (byte) (value >>> 8);
+            buffer[size++] = (byte) value;
+        }
+
+        /**
+         * Writes 7 bits per byte, highest bit set if more bytes follow
+         * Negative values are written as zigzag, so -1 has one byte
+         * @param value
+         */
+        void writeVarint(int value) {
+            ensure(5);
+            int v = (value << 1) ^ (value >> 31);
+            while ((v & ~0x7F) != 0) {
+                buffer[size++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buffer[size++] = (byte) v;
+        }
+
+        void writeString(String value) {
+            byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        void writeList(List<String> values) {
+            if (values == null) {
+                writeVarint(-1);
+                return;
+            }
+            writeVarint(values.size());
+            for (String s : values) writeString(s);
+        }
+
+        byte[] toByteArray() {
+            byte[] b = new byte[size];
+            System.arraycopy(buffer, 0, b, 0, size);
+            return b;
+        }
+    }
+
+    /**
+     * Reads the format from a part of a byte array
+     * Throws IOException instead of reading after the end
+     */
+    private static class Reader {
+
+        private final byte[] data;
+        private int position;
+        private final int end;
+
+        Reader(byte[] data, int position, int end) {
+            this.data = data;
+            this.position = position;
+            this.end = end;
+        }
+
+        boolean hasMore() {
+            return position < end;
+        }
+
+        private void check(int length) throws IOException {
+            if (length < 0 || length > end - position) throw new IOException("Layout file is damaged");
+        }
+
+        /**
+         * Returns reader for the next length bytes and skips them
+         * @param length
+         * @return
+         * @throws IOException
+         */
+        Reader slice(int length) throws IOException {
+            check(length);
+            Reader r = new Reader(data, position, position + length);
+            position += length;
+            return r;
+        }
+
+        int readInt() throws IOException {
+            check(4);
+            int v = ((data[position] & 0xFF) << 24) | ((data[position + 1] & 0xFF) << 16) |
+                    ((data[position + 2] & 0xFF) << 8) | (data[position + 3] & 0xFF);
+            position += 4;
+            return v;
+        }
+
+        int readVarint() throws IOException {
+            int v = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                check(1);
+                byte b = data[position++];
+                v |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return (v >>> 1) ^ -(v & 1);
+            }
+            throw new IOException("Layout file is damaged");
+        }
+
+        String readString() throws IOException {
+            int length = readVarint();
+            check(length);
+            String s = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return s;
+        }
+
+        ArrayList<String> readList() throws IOException {
+            int count = readVarint();
+            if (count < 0) return null;
+            check(count);
+            ArrayList<String> values = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) values.add(readString());
+            return values;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+    Name: LayoutWriter
+    Rev: 1.0
+    Creator: Leon Beier
+    Date: 18.10.2026
+    Copyright (c) 2026 Protop Solutions UG. All right reserved.
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy of
+    this java code and associated documentation files (the "Java Code"), to deal in the
+    Java Code without restriction, including without limitation the rights to use,
+    copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+    Java Code, and to permit persons to whom the Java Code is furnished to do so,
+    subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Java Code.
+
+    THE Java Code IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+    FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+    COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+    AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+    WITH THE Java Code OR THE USE OR OTHER DEALINGS IN THE Java Code.
+
+
+    Description:
+    Saves the element list in background after it changed.
+    Changes within DEBOUNCE_DELAY are saved together (e.g. moving an element over several positions),
+    but a save is not delayed longer than MAX_DELAY. The elements are encoded on the main thread,
+    where they are changed, and only the latest encoded layout is written to disk
+*/
+
+package de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class LayoutWriter {
+
+    //Time in ms without changes until the layout is saved
+    static final int DEBOUNCE_DELAY = 500;
+    //Maximum time in ms a change waits to be saved while changes keep coming
+    static final int MAX_DELAY = 2000;
+
+    //Writes layouts of all activities in order, stops when there is nothing to write
+    private static final ThreadPoolExecutor writer = createWriter();
+
+    //Files directory of app
+    private final File dir;
+    //Layout file of profile
+    private final String fileName;
+    //Elements in recycler view
+    private final List<Element> elements;
+    //Delays save on main thread
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable flushTask = this::flush;
+    //Latest encoded layout that is not written yet, null if none
+    private final AtomicReference<byte[]> latest = new AtomicReference<>();
+
+    //Time of first change that is not saved yet, 0 if none
+    private long firstChange = 0;
+
+    public LayoutWriter(File dir, String fileName, List<Element> elements) {
+        this.dir = dir;
+        this.fileName = fileName;
+        this.elements = elements;
+    }
+
+    /**
+     * Returns thread for writing layouts
+     * @return
+     */
+    private static ThreadPoolExecutor createWriter() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Runs task on the thread that writes layouts, so files of the app are written one after another
+     * @param task
+     */
+    static void execute(Runnable task) {
+        writer.execute(task);
+    }
+
+    /**
+     * Saves elements after DEBOUNCE_DELAY without other changes
+     * Has to be called on main thread after elements were added, removed, moved or edited
+     */
+    public void save() {
+        long now = SystemClock.uptimeMillis();
+        if (firstChange == 0) firstChange = now;
+        handler.removeCallbacks(flushTask);
+        long delay = Math.min(DEBOUNCE_DELAY, firstChange + MAX_DELAY - now);
+        handler.postDelayed(flushTask, Math.max(0, delay));
+    }
+
+    /**
+     * Saves elements now if there are changes that are not saved yet, the file is written in background
+     * Has to be called on main thread, e.g. when the activity is stopped
+     */
+    public void flush() {
+        handler.removeCallbacks(flushTask);
+        //Nothing changed since the last save, the file already holds the elements
+        if (firstChange == 0) return;
+        firstChange = 0;
+        latest.set(LayoutCodec.encode(elements));
+        writer.execute(this::write);
+    }
+
+    /**
+     * Writes latest encoded layout, only called by writer thread
+     * Older layouts that are replaced before they were written are skipped
+     */
+    private void write() {
+        byte[] data = latest.getAndSet(null);
+        if (data == null) return;
+        try {
+            LayoutCodec.write(dir, fileName, data);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView;
+
+/**
+ * Callback after the element list of a profile was loaded, called on main thread
+ */
+public interface OnRepositoryLoaded {
+    void OnRepositoryLoaded(ElementRepository repository);
+}
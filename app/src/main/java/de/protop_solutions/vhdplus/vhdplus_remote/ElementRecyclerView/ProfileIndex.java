@@ -0,0 +1,262 @@
+/*
+    Name: ProfileIndex
+    Rev: 1.0
+    Creator: Leon Beier
+    Date: 18.10.2026
+    Copyright (c) 2026 Protop Solutions UG. All right reserved.
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy of
+    this java code and associated documentation files (the "Java Code"), to deal in the
+    Java Code without restriction, including without limitation the rights to use,
+    copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+    Java Code, and to permit persons to whom the Java Code is furnished to do so,
+    subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Java Code.
+
+    THE Java Code IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+    FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+    COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+    AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+    WITH THE Java Code OR THE USE OR OTHER DEALINGS IN THE Java Code.
+
+
+    Description:
+    Index of the dashboard profiles (Profiles.txt). Every profile has a name, its own layout file
+    and the IP address and port of its wifi module.
+    Only this small file is read to show the profiles, the elements are loaded for the selected profile.
+    Format: index of selected profile in the first line, then one line per profile:
+    name TAB layout file TAB IP address TAB port
+    Without Profiles.txt there is one profile with Layout.bin and the last IP.txt and Port.txt
+*/
+
+package de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+public class ProfileIndex {
+
+    //File with profiles
+    public static final String FILE_NAME = "Profiles.txt";
+    //Name of profile that is created from the files of older versions
+    static final String DEFAULT_NAME = "Default";
+
+    /**
+     * Dashboard profile
+     */
+    public static class Profile {
+        //Name shown in profile picker
+        private final String name;
+        //File of elements in files directory, never changes
+        private final String layoutFile;
+        //IP address and port of wifi module
+        private String ip;
+        private String port;
+
+        Profile(String name, String layoutFile, String ip, String port) {
+            this.name = name;
+            this.layoutFile = layoutFile;
+            this.ip = ip;
+            this.port = port;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getLayoutFile() {
+            return layoutFile;
+        }
+
+        public String getIp() {
+            return ip;
+        }
+
+        public void setIp(String ip) {
+            this.ip = clean(ip);
+        }
+
+        public String getPort() {
+            return port;
+        }
+
+        public void setPort(String port) {
+            this.port = clean(port);
+        }
+    }
+
+    //Files directory of app
+    private final File dir;
+    //Profiles in order of creation
+    private final ArrayList<Profile> profiles = new ArrayList<>();
+    //Index of selected profile
+    private int selected = 0;
+
+    private ProfileIndex(File dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Loads profiles from Profiles.txt in directory
+     * Creates default profile with the layout, IP address and port of older versions if there is no index
+     * @param dir files directory of app
+     * @return
+     * @throws IOException
+     */
+    public static ProfileIndex load(File dir) throws IOException {
+        ProfileIndex index = new ProfileIndex(dir);
+        File file = new File(dir, FILE_NAME);
+        if (file.exists()) {
+            String[] lines = readText(file).split("\n");
+            for (int i = 1; i < lines.length; i++) {
+                String[] fields = lines[i].split("\t", -1);
+                if (fields.length < 4 || fields[1].isEmpty()) continue;
+                index.profiles.add(new Profile(fields[0], fields[1], fields[2], fields[3]));
+            }
+            try {
+                index.selected = Integer.parseInt(lines[0].trim());
+            } catch (NumberFormatException e) {
+                index.selected = 0;
+            }
+        }
+        if (index.profiles.isEmpty()) {
+            File ip = new File(dir, "IP.txt");
+            File port = new File(dir, "Port.txt");
+            index.profiles.add(new Profile(DEFAULT_NAME, LayoutCodec.FILE_NAME,
+                    ip.exists() ? clean(readText(ip)) : "", port.exists() ? clean(readText(port)) : ""));
+        }
+        if (index.selected < 0 || index.selected >= index.profiles.size()) index.selected = 0;
+        return index;
+    }
+
+    /**
+     * Saves profiles in Profiles.txt
+     * @throws IOException
+     */
+    public void save() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append(selected);
+        for (Profile p : profiles) {
+            sb.append('\n').append(p.name).append('\t').append(p.layoutFile)
+                    .append('\t').append(p.ip).append('\t').append(p.port);
+        }
+        //Synced temp file replaces the index, so a crash never leaves an empty profile list
+        LayoutCodec.write(dir, FILE_NAME, sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Adds profile with new layout file and the IP address and port of the selected profile
+     * If the name is already used, a number is added
+     * @param name
+     * @return index of new profile
+     */
+    public int add(String name) {
+        name = clean(name);
+        if (name.isEmpty()) name = "Profile";
+        String unique = name;
+        for (int n = 2; indexOf(unique) >= 0; n++) unique = name + " " + n;
+        int number = profiles.size();
+        String layoutFile;
+        do {
+            layoutFile = "Layout_" + number++ + ".bin";
+        } while (hasLayoutFile(layoutFile) || new File(dir, layoutFile).exists());
+        Profile current = getSelected();
+        profiles.add(new Profile(unique, layoutFile, current.ip, current.port));
+        return profiles.size() - 1;
+    }
+
+    /**
+     * Returns index of profile with name or -1
+     * @param name
+     * @return
+     */
+    public int indexOf(String name) {
+        for (int i = 0; i < profiles.size(); i++) {
+            if (profiles.get(i).name.equals(name)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns profile with layout file or null
+     * @param layoutFile
+     * @return
+     */
+    public Profile getByLayoutFile(String layoutFile) {
+        for (Profile p : profiles) {
+            if (p.layoutFile.equals(layoutFile)) return p;
+        }
+        return null;
+    }
+
+    private boolean hasLayoutFile(String layoutFile) {
+        return getByLayoutFile(layoutFile) != null;
+    }
+
+    /**
+     * Returns names of profiles for profile picker
+     * @return
+     */
+    public ArrayList<String> getNames() {
+        ArrayList<String> names = new ArrayList<>();
+        for (Profile p : profiles) names.add(p.name);
+        return names;
+    }
+
+    public Profile get(int index) {
+        return profiles.get(index);
+    }
+
+    public int size() {
+        return profiles.size();
+    }
+
+    public Profile getSelected() {
+        return profiles.get(selected);
+    }
+
+    public int getSelectedIndex() {
+        return selected;
+    }
+
+    public void select(int index) {
+        if (index >= 0 && index < profiles.size()) selected = index;
+    }
+
+    /**
+     * Removes characters that are used by the file format
+     * @param value
+     * @return
+     */
+    private static String clean(String value) {
+        return value == null ? "" : value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ').trim();
+    }
+
+    /**
+     * Returns content of small text file
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    public static String readText(File file) throws IOException {
+        FileInputStream stream = new FileInputStream(file);
+        try {
+            byte[] data = new byte[(int) file.length()];
+            int read = 0;
+            while (read < data.length) {
+                int n = stream.read(data, read, data.length - read);
+                if (n < 0) break;
+                read += n;
+            }
+            return new String(data, 0, read, StandardCharsets.UTF_8);
+        } finally {
+            stream.close();
+        }
+    }
+}
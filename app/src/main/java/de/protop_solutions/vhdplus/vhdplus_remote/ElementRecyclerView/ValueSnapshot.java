@@ -0,0 +1,285 @@
+/*
+    Name: ValueSnapshot
+    Rev: 1.0
+    Creator: Leon Beier
+    Date: 18.10.2026
+    Copyright (c) 2026 Protop Solutions UG. All right reserved.
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy of
+    this java code and associated documentation files (the "Java Code"), to deal in the
+    Java Code without restriction, including without limitation the rights to use,
+    copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+    Java Code, and to permit persons to whom the Java Code is furnished to do so,
+    subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Java Code.
+
+    THE Java Code IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+    FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+    COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+    AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+    WITH THE Java Code OR THE USE OR OTHER DEALINGS IN THE Java Code.
+
+
+    Description:
+    Last known values of the elements with the time they were received (e.g. Layout.bin.values).
+    New values are appended to the file in background, so saving a value doesn't write the whole layout.
+    The file is compacted to the latest value of every hook when it contains too many old values.
+    Values are restored at start and marked as stale until the wifi module sends new values.
+    File: "VHDV", then one record per value: length, time, key length, key, value length, value
+    Records are read in file order, so the last record of a hook wins even if the clock was changed.
+    A record that was not written completely is ignored and the file is compacted before the next append,
+    so new values are never written after a damaged record
+*/
+
+package de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import de.protop_solutions.vhdplus.vhdplus_remote.WiFi.WiFiConnection;
+
+public class ValueSnapshot {
+
+    //Added to layout file name for the snapshot file
+    public static final String SUFFIX = ".values";
+    //First bytes of file ("VHDV")
+    static final int MAGIC = 0x56484456;
+    //Time in ms values are collected before they are appended
+    static final int FLUSH_DELAY = 1000;
+    //File is compacted if it has more than COMPACT_FACTOR records per hook and more than COMPACT_MIN records
+    static final int COMPACT_FACTOR = 4;
+    static final int COMPACT_MIN = 256;
+
+    /**
+     * Value of one hook
+     */
+    static class Record {
+        final String key;
+        final long time;
+        final String value;
+
+        Record(String key, long time, String value) {
+            this.key = key;
+            this.time = time;
+            this.value = value;
+        }
+    }
+
+    //Snapshot file
+    private final File file;
+    //Values that are not appended yet, only used on main thread
+    private ArrayList<Record> pending = new ArrayList<>();
+    //Appends pending values on main thread, created with first value
+    private Handler handler;
+    private final Runnable flushTask = this::flush;
+
+    //Latest value of every key in file, only used by writer thread after restore
+    private final HashMap<String, Record> latest = new HashMap<>();
+    //Number of records in file, only used by writer thread after restore
+    private int records = 0;
+    //True if the file has a damaged header or record, then it is compacted before the next append
+    private boolean damaged = false;
+
+    public ValueSnapshot(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns key of value in snapshot
+     * Elements with the same base type, hook and device share the value like in read requests
+     * @param element
+     * @param index index of value and hook
+     * @return
+     */
+    static String key(Element element, int index) {
+        return element.getDevice() + "\t" + Element.getBaseType(element.getType(), false)
+                + "_" + element.getHooks().get(index);
+    }
+
+    /**
+     * Sets last known values of elements and marks elements with values as stale
+     * Has to be called before the first value is added
+     * If the file can't be read, it is replaced with the first added values
+     * @param elements
+     * @throws IOException file can't be read
+     */
+    public void restore(List<Element> elements) throws IOException {
+        if (file.exists()) {
+            damaged = true;
+            read();
+        }
+        for (Element e : elements) {
+            if (!WiFiConnection.isReceivingElement(e.getType())) continue;
+            for (int i = 0; i < e.getHooks().size(); i++) {
+                Record r = latest.get(key(e, i));
+                if (r == null) continue;
+                ArrayList<String> v = e.getValues();
+                if (v == null) {
+                    v = new ArrayList<>();
+                    e.setValues(v);
+                }
+                while (v.size() <= i) v.add("");
+                v.set(i, r.value);
+                e.setStale(true);
+            }
+        }
+    }
+
+    /**
+     * Saves value from wifi module, it is appended to the file after FLUSH_DELAY
+     * Has to be called on main thread
+     * @param element
+     * @param index index of value and hook
+     * @param value
+     */
+    public void add(Element element, int index, String value) {
+        if (index >= element.getHooks().size()) return;
+        if (pending.isEmpty()) {
+            if (handler == null) handler = new Handler(Looper.getMainLooper());
+            handler.postDelayed(flushTask, FLUSH_DELAY);
+        }
+        pending.add(new Record(key(element, index), System.currentTimeMillis(), value));
+    }
+
+    /**
+     * Appends values that are not saved yet in background
+     * Has to be called on main thread, e.g. when the activity is stopped
+     */
+    public void flush() {
+        if (handler != null) handler.removeCallbacks(flushTask);
+        if (pending.isEmpty()) return;
+        ArrayList<Record> values = pending;
+        pending = new ArrayList<>();
+        LayoutWriter.execute(() -> {
+            try {
+                append(values);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Appends records to file or writes compacted file if it has too many old values
+     * or a damaged record that would hide the appended records
+     * Only called by writer thread
+     * @param values
+     * @throws IOException
+     */
+    void append(List<Record> values) throws IOException {
+        for (Record r : values) latest.put(r.key, r);
+        records += values.size();
+        if (damaged || (records > COMPACT_MIN && records > latest.size() * COMPACT_FACTOR)) {
+            compact();
+            return;
+        }
+        boolean header = !file.exists() || file.length() == 0;
+        FileOutputStream stream = new FileOutputStream(file, true);
+        try {
+            stream.write(encode(values, header));
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * Replaces file with the latest value of every key
+     * @throws IOException
+     */
+    private void compact() throws IOException {
+        File temp = new File(file.getPath() + LayoutCodec.TEMP_SUFFIX);
+        FileOutputStream stream = new FileOutputStream(temp);
+        try {
+            stream.write(encode(latest.values(), true));
+            stream.getFD().sync();
+        } finally {
+            stream.close();
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Value snapshot can't be replaced");
+        }
+        records = latest.size();
+        damaged = false;
+    }
+
+    /**
+     * Returns records in file format
+     * @param values
+     * @param header true to start with "VHDV"
+     * @return
+     * @throws IOException
+     */
+    private static byte[] encode(Iterable<Record> values, boolean header) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        if (header) out.writeInt(MAGIC);
+        for (Record r : values) {
+            byte[] key = r.key.getBytes(StandardCharsets.UTF_8);
+            byte[] value = r.value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(8 + 4 + key.length + 4 + value.length);
+            out.writeLong(r.time);
+            out.writeInt(key.length);
+            out.write(key);
+            out.writeInt(value.length);
+            out.write(value);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads latest value of every key from file, later records replace earlier ones
+     * Stops at a record that was not written completely, then damaged stays true
+     * @throws IOException
+     */
+    private void read() throws IOException {
+        byte[] data = new byte[(int) file.length()];
+        FileInputStream stream = new FileInputStream(file);
+        try {
+            int read = 0;
+            while (read < data.length) {
+                int n = stream.read(data, read, data.length - read);
+                if (n < 0) break;
+                read += n;
+            }
+        } finally {
+            stream.close();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (data.length == 0) damaged = false;
+        if (data.length < 4 || buffer.getInt() != MAGIC) return;
+        while (buffer.remaining() >= 4) {
+            int length = buffer.getInt();
+            if (length < 16 || length > buffer.remaining()) break;
+            int end = buffer.position() + length;
+            long time = buffer.getLong();
+            int keyLength = buffer.getInt();
+            if (keyLength < 0 || keyLength > end - buffer.position() - 4) break;
+            String key = new String(data, buffer.position(), keyLength, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + keyLength);
+            int valueLength = buffer.getInt();
+            if (valueLength != end - buffer.position()) break;
+            String value = new String(data, buffer.position(), valueLength, StandardCharsets.UTF_8);
+            buffer.position(end);
+            latest.put(key, new Record(key, time, value));
+            records++;
+        }
+        damaged = buffer.position() != data.length;
+    }
+}
@@ -37,16 +37,22 @@ import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.constraintlayout.widget.ConstraintLayout;
+import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 import androidx.recyclerview.widget.ItemTouchHelper;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView.Element;
 import de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView.ElementListAdapter;
+import de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView.ElementRepository;
+import de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView.LayoutWriter;
 import de.protop_solutions.vhdplus.vhdplus_remote.RecyclerViewCallbacks.DragAndDropCallback;
 import de.protop_solutions.vhdplus.vhdplus_remote.RecyclerViewCallbacks.SwipeCallback;
 
 import android.app.Activity;
+import android.content.BroadcastReceiver;
+import android.content.Context;
 import android.content.Intent;
+import android.content.IntentFilter;
 import android.graphics.Color;
 import android.os.Bundle;
 import android.util.Log;
@@ -54,24 +60,31 @@ import android.view.View;
 
 import com.google.android.material.snackbar.Snackbar;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.util.ArrayList;
+import java.util.HashSet;
 
 public class MainActivity extends AppCompatActivity {
 
     //IP from connect activity
     private String ip;
+    //IP addresses of wifi modules that receive button, switch and slider data over UDP
+    private final HashSet<String> udpDevices = new HashSet<>();
+    //Layout file of selected profile, null for last profile
+    private String profile;
     //Recycler view with elements
     private RecyclerView recyclerView;
-    //Adapter for background functions
+    //Adapter for background functions, null until the elements are loaded
     private ElementListAdapter adapter;
+    //True between onStart and onPause, so the adapter starts listening after loading
+    private boolean started = false;
+    //Element list and last known values of selected profile, null until loaded
+    private ElementRepository repository;
     //elements in recycler view
     private ArrayList<Element> elements;
+    //Saves elements in background after they changed, null if the layout couldn't be loaded
+    private LayoutWriter layoutWriter;
+    //Shows round trip time of requests to wifi module in action bar
+    private BroadcastReceiver rttReceiver;
 
     SwipeCallback swipeToDeleteCallback;
     SwipeCallback swipeToEditCallback;
@@ -96,48 +109,83 @@ public class MainActivity extends AppCompatActivity {
                 if (port.length() > 0)
                     ip += ":" + port.trim();
             }
+            ArrayList<String> udp = extras.getStringArrayList("UdpDevices");
+            if (udp != null) udpDevices.addAll(udp);
+            profile = extras.getString("Profile");
+            if (extras.containsKey("ProfileName")) setTitle(extras.getString("ProfileName"));
         }
 
         //Open AddActivity after "Add" button pressed
         findViewById(R.id.addButton).setOnClickListener(view -> {
-            startAddActivity(null);
+            if (adapter != null) startAddActivity(null);
         });
 
-        //Load last elements in recycler view
-        elements = new ArrayList<>();
-        try {
-            loadElements();
-        } catch (IOException e) {
-            e.printStackTrace();
-        } catch (ClassNotFoundException e) {
-            e.printStackTrace();
-        }
+        //Show round trip time of wifi module and how many read values changed or were saved below title
+        rttReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                if (getSupportActionBar() == null) return;
+                getSupportActionBar().setSubtitle(getString(R.string.rtt,
+                        intent.getIntExtra("rtt", -1), intent.getIntExtra("timeout", -1),
+                        intent.getIntExtra("changed", 0), intent.getIntExtra("saved", 0)));
+            }
+        };
+        LocalBroadcastManager.getInstance(this).registerReceiver(rttReceiver, new IntentFilter("rtt"));
 
-        //Initialize recycler view adapter
+        //Last elements of profile in recycler view, only loaded with the first start or after the profile changed
         recyclerView = findViewById(R.id.recyclerview);
-        adapter = new ElementListAdapter(this, elements, ip);
+        ElementRepository.load(this, profile, this::showElements);
+    }
+
+    /**
+     * Shows elements of loaded profile and starts listening to wifi module
+     * @param repository
+     */
+    private void showElements(ElementRepository repository){
+        if (isDestroyed()) return;
+        this.repository = repository;
+        elements = repository.getElements();
+
+        //Initialize recycler view adapter
+        adapter = new ElementListAdapter(this, repository, ip);
+        adapter.setUdpTransport(udpDevices);
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
         recyclerView.getItemAnimator().setChangeDuration(0);
         recyclerView.setAdapter(adapter);
 
+        //Save elements after they were added, removed or moved, a layout that couldn't be read is kept
+        if (repository.isLoadFailed()) {
+            Snackbar.make(layout, R.string.layout_not_loaded, Snackbar.LENGTH_LONG).show();
+        } else {
+            layoutWriter = new LayoutWriter(getFilesDir(), repository.getLayoutFile(), elements);
+            adapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+                @Override
+                public void onItemRangeInserted(int positionStart, int itemCount) {
+                    layoutWriter.save();
+                }
+
+                @Override
+                public void onItemRangeRemoved(int positionStart, int itemCount) {
+                    layoutWriter.save();
+                }
+
+                @Override
+                public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+                    layoutWriter.save();
+                }
+            });
+        }
+
         //Add callbacks
         enableSwipeToDeleteAndUndo();
         enableSwipeToEdit();
         enableDragAndDrop();
 
         //Start listening for WiFi module
-        adapter.onStart();
+        if (started) adapter.onStart();
     }
 
     private void startAddActivity(Element item){
-        //Saves elements in recycler view when activity stopped
-        //For example when "Add" button pressed or application closed
-        //If application reopened -> can restore elements
-        try {
-            saveElements();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
         final Intent intent = new Intent(getApplicationContext() , AddActivity.class);
         intent.putExtra("edit", item);
         addActivityResultLauncher.launch(intent);
@@ -159,48 +207,18 @@ public class MainActivity extends AppCompatActivity {
                         element.setType(data.getIntExtra("type", 1));
                         element.setHooks(data.getStringArrayListExtra("hooks"));
                         element.setNames(data.getStringArrayListExtra("names"));
+                        element.setPollInterval(data.getIntExtra("pollInterval", 0));
+                        element.setSliderRate(data.getIntExtra("sliderRate", Element.DEFAULT_SLIDER_RATE));
+                        element.setDevice(data.getStringExtra("device"));
                     } else element = lastElement;
+                    //Saved by adapter data observer
                     if (edit) adapter.insertElement(element, editPosition);
                     else adapter.addElement(element);
-
-                    try {
-                        saveElements();
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
                 }
                 edit = false;
             }
         });
 
-    /**
-     * Saves elements of recycler view in Layout.txt
-     * @throws IOException
-     */
-    private void saveElements() throws IOException {
-        FileOutputStream outStream = new FileOutputStream(getFilesDir().getPath() + "/Layout.txt");
-        ObjectOutputStream objectOutStream = new ObjectOutputStream(outStream);
-        objectOutStream.writeInt(elements.size());
-        for(Element e:elements) objectOutStream.writeObject(e);
-        objectOutStream.close();
-    }
-
-    /**
-     * Loads elements from Layout.txt and saves them in the elements list
-     * @throws IOException
-     * @throws ClassNotFoundException
-     */
-    private void loadElements() throws IOException, ClassNotFoundException {
-        File file = new File(getFilesDir().getPath() + "/Layout.txt");
-        if(!file.exists()) file.createNewFile();
-        FileInputStream inStream = new FileInputStream(file);
-        ObjectInputStream objectInStream = new ObjectInputStream(inStream);
-        int count = objectInStream.readInt();
-        elements = new ArrayList<>();
-        for (int c=0; c < count; c++) elements.add((Element) objectInStream.readObject());
-        objectInStream.close();
-    }
-
     /**
      * Attach swipe left callback
      * Deletes elememt and shows snackbar to undo
@@ -274,7 +292,8 @@ public class MainActivity extends AppCompatActivity {
      */
     @Override
     protected void onStart() {
-        adapter.onStart();
+        started = true;
+        if (adapter != null) adapter.onStart();
         super.onStart();
     }
 
@@ -283,23 +302,35 @@ public class MainActivity extends AppCompatActivity {
      */
     @Override
     protected void onPause(){
-        adapter.onStop();
+        started = false;
+        if (adapter != null) adapter.onStop();
         super.onPause();
     }
 
+    /**
+     * Saves elements and last known values in background when main activity stopped
+     * For example when application closed, if application reopened -> can restore elements
+     */
+    @Override
+    protected void onStop(){
+        if (layoutWriter != null) layoutWriter.flush();
+        if (repository != null) repository.flushValues();
+        super.onStop();
+    }
+
     /**
      * Save elements when main activity destroyed
      */
     @Override
     protected void onDestroy()
     {
-        try {
-            saveElements();
-        } catch (IOException e) {
-            e.printStackTrace();
+        if (layoutWriter != null) layoutWriter.flush();
+        if (adapter != null) {
+            repository.flushValues();
+            swipeToDeleteCallback.destroy();
+            swipeToEditCallback.destroy();
         }
-        swipeToDeleteCallback.destroy();
-        swipeToEditCallback.destroy();
+        LocalBroadcastManager.getInstance(this).unregisterReceiver(rttReceiver);
         super.onDestroy();
     }
 }
\ No newline at end of file
@@ -38,6 +38,7 @@ import android.widget.EditText;
 import android.widget.TextView;
 
 import java.util.ArrayList;
+import java.util.Set;
 
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
@@ -52,13 +53,13 @@ public class SettingListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
     private ArrayList<Setting> settings;
     //Element type for this settings
     private int type = 1;
-    //List of used hooks to compare with hooks in list
-    private ArrayList<String>[] usedHooks;
+    //Hooks of other elements with the same base type to compare with hooks in list
+    private Set<String> usedHooks;
     //Recycler view needed to find view holders
     RecyclerView recyclerView;
 
     //Constructor
-    public SettingListAdapter(Context context, ArrayList<Setting> settings, int type, ArrayList<String>[] usedHooks, RecyclerView recyclerView) {
+    public SettingListAdapter(Context context, ArrayList<Setting> settings, int type, Set<String> usedHooks, RecyclerView recyclerView) {
         this.context = context;
         this.settings = settings;
         this.type = type;
@@ -128,8 +129,7 @@ public class SettingListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
      * @return
      */
     private boolean hookAlreadyUsed(String hook, int position){
-        ArrayList<String> hooks = usedHooks[Element.getBaseType(type,false)-1];
-        if (hooks != null && hooks.contains(hook)) return true;
+        if (usedHooks.contains(hook)) return true;
         for (Setting s: settings) {
             if (s.getName().contains("Hook") && s.getValue().equals(hook) &&
                     settings.indexOf(s) != position) return true;
@@ -146,6 +146,75 @@ public class SettingListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
         return settings.size();
     }
 
+    /**
+     * Returns true if elements of type have the update interval before the device setting
+     * @param type
+     * @return
+     */
+    public static boolean hasPollSetting(int type){
+        switch (type){
+            case Element.TYPE_LED:
+            case Element.TYPE_LED10:
+            case Element.TYPE_RGBLED:
+            case Element.TYPE_RGBLED10:
+            case Element.TYPE_DISPLAY:
+            case Element.TYPE_CONSOLE:
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if elements of type have the values per second before the device setting
+     * @param type
+     * @return
+     */
+    public static boolean hasSliderRateSetting(int type){
+        return type == Element.TYPE_SLIDER;
+    }
+
+    /**
+     * Returns number of settings without update interval, values per second and device
+     * @return
+     */
+    private int getElementSettingCount(){
+        return hasPollSetting(type) || hasSliderRateSetting(type) ? settings.size() - 2 : settings.size() - 1;
+    }
+
+    /**
+     * Returns user defined update interval in ms or 0 for default interval
+     * @return
+     */
+    public int getPollInterval(){
+        if (!hasPollSetting(type)) return 0;
+        try {
+            return Math.max(0, Integer.parseInt(settings.get(settings.size() - 2).getValue().trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Returns user defined values per second a slider sends while dragged
+     * @return
+     */
+    public int getSliderRate(){
+        if (!hasSliderRateSetting(type)) return Element.DEFAULT_SLIDER_RATE;
+        try {
+            return Math.max(0, Integer.parseInt(settings.get(settings.size() - 2).getValue().trim()));
+        } catch (NumberFormatException e) {
+            return Element.DEFAULT_SLIDER_RATE;
+        }
+    }
+
+    /**
+     * Returns IP address (+ port) of wifi module, empty for module of connect activity
+     * @return
+     */
+    public String getDevice(){
+        return settings.get(settings.size() - 1).getValue().trim();
+    }
+
     /**
      * Returns user defined names for labels and buttons or colors for LEDs depending on element type
      * @return
@@ -164,11 +233,13 @@ public class SettingListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
             case Element.TYPE_BUTTON3:
             case Element.TYPE_LED10:
             case Element.TYPE_JOYSTICK:
-                for (int i = 0; i < settings.size(); i += 2)
+                for (int i = 0; i < getElementSettingCount(); i += 2)
                     names.add(settings.get(i).getValue());
                 break;
             case Element.TYPE_RGBLED:
             case Element.TYPE_DISPLAY:
+                names.add(settings.get(0).getValue());
+                break;
             case Element.TYPE_SLIDER:
                 names.add(settings.get(0).getValue());
                 break;
@@ -193,7 +264,7 @@ public class SettingListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
             case Element.TYPE_BUTTON3:
             case Element.TYPE_LED10:
             case Element.TYPE_JOYSTICK:
-                for (int i = 0; i < settings.size(); i += 2)
+                for (int i = 0; i < getElementSettingCount(); i += 2)
                     hooks.add(settings.get(i+1).getValue());
                 break;
             case Element.TYPE_RGBLED:
@@ -202,7 +273,7 @@ public class SettingListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
                 hooks.add(settings.get(1).getValue());
                 break;
             case Element.TYPE_RGBLED10:
-                for (int i = 0; i < settings.size(); i ++)
+                for (int i = 0; i < getElementSettingCount(); i ++)
                     hooks.add(settings.get(i).getValue());
                 break;
         }
@@ -0,0 +1,8 @@
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+/**
+ * Callback for changes of the network connection, called in background
+ */
+public interface OnConnectionChanged {
+    void OnConnectionChanged(boolean connected);
+}
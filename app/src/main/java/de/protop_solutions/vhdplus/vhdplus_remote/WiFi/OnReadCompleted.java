@@ -0,0 +1,8 @@
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+/**
+ * Callback for read requests, called on the background thread of the request
+ */
+public interface OnReadCompleted {
+    void OnReadCompleted(ResponseTokenizer response, boolean error);
+}
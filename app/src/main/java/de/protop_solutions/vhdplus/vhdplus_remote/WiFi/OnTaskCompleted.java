@@ -1,5 +1,8 @@
 package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
 
+/**
+ * Callback for send requests and push channel, called in background
+ */
 public interface OnTaskCompleted {
     void OnTaskCompleted(String response, boolean error);
 }
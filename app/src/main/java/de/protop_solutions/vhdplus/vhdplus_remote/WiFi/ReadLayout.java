@@ -0,0 +1,246 @@
+/*
+    Name: ReadLayout
+    Rev: 1.0
+    Creator: Leon Beier
+    Date: 18.10.2026
+    Copyright (c) 2026 Protop Solutions UG. All right reserved.
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy of
+    this java code and associated documentation files (the "Java Code"), to deal in the
+    Java Code without restriction, including without limitation the rights to use,
+    copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+    Java Code, and to permit persons to whom the Java Code is furnished to do so,
+    subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Java Code.
+
+    THE Java Code IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+    FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+    COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+    AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+    WITH THE Java Code OR THE USE OR OTHER DEALINGS IN THE Java Code.
+
+    Description:
+    Hooks query of read requests and the element for every value of the response.
+    Also contains an index from hook to element, so values that are returned with their
+    hook are found without searching the element list.
+    Created once after the element list changed, so a poll doesn't build Strings.
+    Slots are sorted by position, so the hooks of visible elements are one part of the query.
+    Only the last known values are changed after creation, and only by the response worker
+*/
+
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+import java.util.List;
+
+import de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView.Element;
+
+class ReadLayout {
+
+    //Last known value of restored values, values in responses never contain "~",
+    //so the first value of the module is always a change and the element is not stale anymore
+    static final String STALE_VALUE = "~";
+
+    //Hooks of elements that need data from wifi module (e.g. ~l_hook1~r_hook2)
+    final String hooks;
+    //Position in element list for every value of the response (without "R")
+    final int[] positions;
+    //Index in values of element for every value of the response
+    final int[] indexes;
+    //Element for every value of the response
+    final Element[] elements;
+    //Last known value for every value of the response, only used by response worker
+    final String[] values;
+    //Index in Element.POLL_TIERS for every value
+    final int[] tiers;
+    //Bit for every tier that is used by an element
+    final int tierMask;
+
+    //Start of hook in hooks for every value and length of hooks at the end
+    private final int[] hookStarts;
+    //Hook with type prefix for every value (e.g. "l_hook1")
+    private final String[] keys;
+    //Open addressing table with slot + 1 for hash of key, 0 if empty
+    private final int[] table;
+    //Next slot with same key (if hook is used by multiple elements) or -1
+    private final int[] sameKey;
+
+    ReadLayout(List<Element> elements) {
+        this(elements, null);
+    }
+
+    /**
+     * Creates layout for the elements of one wifi module
+     * Positions are still positions in the whole element list
+     * @param elements
+     * @param device device of elements (see Element.getDevice()), null for all elements
+     */
+    ReadLayout(List<Element> elements, String device) {
+        this(elements, device, null);
+    }
+
+    /**
+     * Creates layout for the elements of one wifi module
+     * Elements whose device is the module of connect activity are read with device ""
+     * @param elements
+     * @param device device key of elements (see WiFiDevices.getDeviceKey), null for all elements
+     * @param defaultIp IP address (+ port) of module of connect activity, null if unknown
+     */
+    ReadLayout(List<Element> elements, String device, String defaultIp) {
+        int count = 0;
+        for (Element e : elements) {
+            if (isRead(e, device, defaultIp)) count += e.getHooks().size();
+        }
+        positions = new int[count];
+        indexes = new int[count];
+        this.elements = new Element[count];
+        values = new String[count];
+        tiers = new int[count];
+        keys = new String[count];
+        hookStarts = new int[count + 1];
+        sameKey = new int[count];
+        int tableSize = 4;
+        while (tableSize < count * 2) tableSize *= 2;
+        table = new int[tableSize];
+
+        StringBuilder sb = new StringBuilder(count * 8);
+        int slot = 0;
+        int mask = 0;
+        for (int position = 0; position < elements.size(); position++) {
+            Element e = elements.get(position);
+            if (!isRead(e, device, defaultIp)) continue;
+            String type = WiFiConnection.getHookPrefix(e.getType());
+            int tier = Element.getPollTier(e.getPollInterval());
+            mask |= 1 << tier;
+            for (int j = 0; j < e.getHooks().size(); j++) {
+                hookStarts[slot] = sb.length();
+                sb.append('~').append(type).append('_').append(e.getHooks().get(j));
+                positions[slot] = position;
+                indexes[slot] = j;
+                this.elements[slot] = e;
+                if (e.isStale()) values[slot] = STALE_VALUE;
+                else values[slot] = e.getValues() != null && e.getValues().size() > j ? e.getValues().get(j) : "";
+                tiers[slot] = tier;
+                keys[slot] = type + "_" + e.getHooks().get(j);
+                addKey(slot);
+                slot++;
+            }
+        }
+        hooks = sb.toString();
+        hookStarts[count] = hooks.length();
+        tierMask = mask;
+    }
+
+    /**
+     * Returns true if values of element are requested from wifi module of device
+     * @param e
+     * @param device device key, null for all devices
+     * @param defaultIp
+     * @return
+     */
+    private static boolean isRead(Element e, String device, String defaultIp) {
+        return WiFiConnection.isReceivingElement(e.getType()) &&
+                (device == null || device.equals(WiFiDevices.getDeviceKey(e.getDevice(), defaultIp)));
+    }
+
+    /**
+     * Adds slot to hook index
+     * @param slot
+     */
+    private void addKey(int slot) {
+        sameKey[slot] = -1;
+        int mask = table.length - 1;
+        for (int i = keys[slot].hashCode() & mask; ; i = (i + 1) & mask) {
+            if (table[i] == 0) {
+                table[i] = slot + 1;
+                return;
+            }
+            int s = table[i] - 1;
+            if (keys[s].equals(keys[slot])) {
+                //Append to slots of same hook
+                while (sameKey[s] >= 0) s = sameKey[s];
+                sameKey[s] = slot;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns first slot for hook of current value of response or -1 if not found
+     * @param response
+     * @return
+     */
+    int find(ResponseTokenizer response) {
+        int mask = table.length - 1;
+        for (int i = response.tokenHash() & mask; table[i] != 0; i = (i + 1) & mask) {
+            int slot = table[i] - 1;
+            if (response.tokenEquals(keys[slot])) return slot;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns next slot with the same hook or -1
+     * @param slot
+     * @return
+     */
+    int nextWithSameKey(int slot) {
+        return sameKey[slot];
+    }
+
+    /**
+     * Returns first slot of element at position or after it
+     * Returns size() if there is no receiving element from position on
+     * @param position
+     * @return
+     */
+    int firstSlot(int position) {
+        int low = 0;
+        int high = positions.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (positions[mid] < position) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Returns start of hook of slot in hooks, length of hooks for size()
+     * @param slot
+     * @return
+     */
+    int hookStart(int slot) {
+        return hookStarts[slot];
+    }
+
+    /**
+     * Returns hooks query for slots from fromSlot to toSlot (exclusive)
+     * @param fromSlot
+     * @param toSlot
+     * @return
+     */
+    String hooks(int fromSlot, int toSlot) {
+        return hooks.substring(hookStarts[fromSlot], hookStarts[toSlot]);
+    }
+
+    /**
+     * Returns smallest interval in ms of elements, so every tier is requested in time
+     * Returns default interval if no element needs data
+     * @return
+     */
+    int getPollInterval() {
+        if (tierMask == 0) return Element.DEFAULT_POLL_INTERVAL;
+        return Element.POLL_TIERS[Integer.numberOfTrailingZeros(tierMask)];
+    }
+
+    /**
+     * Returns number of values in response
+     * @return
+     */
+    int size() {
+        return positions.length;
+    }
+}
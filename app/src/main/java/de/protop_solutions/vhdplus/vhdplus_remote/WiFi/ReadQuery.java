@@ -0,0 +1,74 @@
+/*
+    Name: ReadQuery
+    Rev: 1.0
+    Creator: Leon Beier
+    Date: 18.10.2026
+    Copyright (c) 2026 Protop Solutions UG. All right reserved.
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy of
+    this java code and associated documentation files (the "Java Code"), to deal in the
+    Java Code without restriction, including without limitation the rights to use,
+    copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+    Java Code, and to permit persons to whom the Java Code is furnished to do so,
+    subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Java Code.
+
+    THE Java Code IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+    FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+    COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+    AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+    WITH THE Java Code OR THE USE OR OTHER DEALINGS IN THE Java Code.
+
+
+    Description:
+    Hooks query of one read request for a part of the elements (e.g. visible elements
+    of fast tiers). Every query has its own sequence number for delta responses
+*/
+
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+class ReadQuery {
+
+    //Layout the slots belong to
+    final ReadLayout layout;
+    //Slot in layout for every value of the response
+    final int[] slots;
+    //Hooks of slots (e.g. ~l_hook1~r_hook2)
+    final String hooks;
+    //Sequence number of last delta response for this query, 0 to get all values
+    volatile long sequence = 0;
+
+    //Path of last request and its sequence number (-1 without seq), only used on main thread
+    private String path;
+    private long pathSequence = -1;
+
+    ReadQuery(ReadLayout layout, int[] slots) {
+        this.layout = layout;
+        this.slots = slots;
+        if (slots.length == layout.size()) {
+            hooks = layout.hooks;
+        } else {
+            StringBuilder sb = new StringBuilder(slots.length * 8);
+            for (int slot : slots) sb.append(layout.hooks, layout.hookStart(slot), layout.hookStart(slot + 1));
+            hooks = sb.toString();
+        }
+    }
+
+    /**
+     * Returns path of read request, with sequence number of last response if the module sends delta responses
+     * Only created again if the sequence number changed
+     * @param delta
+     * @return
+     */
+    String getPath(boolean delta) {
+        long seq = delta ? sequence : -1;
+        if (path == null || pathSequence != seq) {
+            path = seq < 0 ? "read?hooks=" + hooks : "read?hooks=" + hooks + "&seq=" + seq;
+            pathSequence = seq;
+        }
+        return path;
+    }
+}
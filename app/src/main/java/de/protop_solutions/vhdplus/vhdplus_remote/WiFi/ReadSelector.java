@@ -0,0 +1,353 @@
+/*
+    Name: ReadSelector
+    Rev: 1.0
+    Creator: Leon Beier
+    Date: 18.10.2026
+    Copyright (c) 2026 Protop Solutions UG. All right reserved.
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy of
+    this java code and associated documentation files (the "Java Code"), to deal in the
+    Java Code without restriction, including without limitation the rights to use,
+    copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+    Java Code, and to permit persons to whom the Java Code is furnished to do so,
+    subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Java Code.
+
+    THE Java Code IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+    FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+    COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+    AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+    WITH THE Java Code OR THE USE OR OTHER DEALINGS IN THE Java Code.
+
+
+    Description:
+    Selects the hooks for the next read request. Every tier of Element.POLL_TIERS is
+    requested when its interval is over, so each poll only contains hooks that are due.
+    If the visible elements are known, elements that are not visible are only
+    requested every FULL_READ_INTERVAL reads of their tier.
+    Hooks whose value didn't change for STABLE_TIME are read with slower tiers and
+    with their own tier again as soon as the value changes or the user sends data with their element.
+    Only used on main thread
+*/
+
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView.Element;
+
+class ReadSelector {
+
+    //Every FULL_READ_INTERVAL reads of a tier the values of elements that are not visible are read too
+    static final int FULL_READ_INTERVAL = 10;
+    //Time in ms without change until a hook is read with the next slower tier, doubled for every further tier
+    static final int STABLE_TIME = 10000;
+    //Maximum number of tiers a hook is slowed down
+    static final int MAX_SLOWDOWN = 3;
+    //Time in ms between checks for stable hooks
+    static final int RETUNE_INTERVAL = 1000;
+
+    //Layout of last selection
+    private ReadLayout layout;
+    //Time of last read and number of reads for every tier
+    private final long[] lastRead = new long[Element.POLL_TIERS.length];
+    private final int[] readCount = new int[Element.POLL_TIERS.length];
+
+    //Visible positions in element list, -1 if unknown (then all elements are read)
+    private int visibleFirst = -1;
+    private int visibleLast = -1;
+    //Slots of visible elements in layout
+    private int windowFrom = -1;
+    private int windowTo = -1;
+    //True if elements became visible, so the visible elements of all tiers are read next
+    private boolean refreshWindow = false;
+
+    //Tier every slot is read with, slower than the tier of the element if the value is stable
+    private int[] effectiveTiers;
+    //Bit for every tier in effectiveTiers
+    private int effectiveMask;
+    //Number of slots that are read with a slower tier
+    private int slowedSlots = 0;
+    //Time of last change or data sent by the user with the element for every slot
+    private long[] lastChange;
+    //Time of last check for stable hooks, true if a slot has to be read faster again
+    private long lastRetune;
+    private boolean retuneNeeded = false;
+    //Highest sequence number of a response that contained the slot
+    private long[] slotSequences;
+
+    //Statistics
+    private long hookReads = 0;
+    private long hits = 0;
+    private double savedReads = 0;
+    //Hook reads per ms that are saved by slower tiers
+    private double savedRate = 0;
+
+    //Queries for tiers that are read with all elements, key is the tier mask
+    private final HashMap<Integer, ReadQuery> fullQueries = new HashMap<>();
+    //Queries with visible elements of some tiers, key is tier mask | full tier mask << 16
+    private final HashMap<Integer, ReadQuery> windowQueries = new HashMap<>();
+
+    /**
+     * Sets positions of first and last visible element, -1 if unknown
+     * Returns true if elements became visible that were not visible before
+     * @param first
+     * @param last
+     * @return
+     */
+    boolean setVisiblePositions(int first, int last) {
+        if (first < 0 || last < first) {
+            first = -1;
+            last = -1;
+        }
+        boolean newElements = first >= 0 && (visibleFirst < 0 || first < visibleFirst || last > visibleLast);
+        visibleFirst = first;
+        visibleLast = last;
+        if (newElements) refreshWindow = true;
+        return newElements;
+    }
+
+    /**
+     * Returns query with hooks that are due at time now or null if no hook is due
+     * The tiers of the query count as read
+     * @param layout
+     * @param now time in ms
+     * @return
+     */
+    ReadQuery next(ReadLayout layout, long now) {
+        if (layout != this.layout) {
+            //New hooks need all values
+            this.layout = layout;
+            fullQueries.clear();
+            windowQueries.clear();
+            effectiveTiers = layout.tiers.clone();
+            effectiveMask = layout.tierMask;
+            slowedSlots = 0;
+            lastChange = new long[layout.size()];
+            Arrays.fill(lastChange, now);
+            slotSequences = new long[layout.size()];
+            lastRetune = now;
+            savedRate = 0;
+            windowFrom = -1;
+            windowTo = -1;
+            for (int t = 0; t < lastRead.length; t++) {
+                lastRead[t] = Long.MIN_VALUE / 2;
+                readCount[t] = 0;
+            }
+        }
+        if (layout.size() == 0) return null;
+        if (retuneNeeded || now - lastRetune >= RETUNE_INTERVAL) retune(now);
+
+        boolean window = visibleFirst >= 0;
+        if (window) {
+            int from = layout.firstSlot(visibleFirst);
+            int to = layout.firstSlot(visibleLast + 1);
+            if (from != windowFrom || to != windowTo) {
+                //Other elements are visible, so the sequence numbers of the last window are not valid
+                windowFrom = from;
+                windowTo = to;
+                clearQueries(windowQueries);
+            }
+        }
+
+        //A tier is due if its interval is over at the nearest poll
+        int tolerance = getPollInterval() / 2;
+        int due = 0;
+        int full = 0;
+        for (int t = 0; t < Element.POLL_TIERS.length; t++) {
+            if ((effectiveMask & (1 << t)) == 0) continue;
+            boolean tierDue = now - lastRead[t] >= Element.POLL_TIERS[t] - tolerance;
+            if (!tierDue && !(window && refreshWindow)) continue;
+            due |= 1 << t;
+            if (tierDue && (!window || readCount[t] % FULL_READ_INTERVAL == 0)) full |= 1 << t;
+        }
+        refreshWindow = false;
+        if (due == 0) return null;
+
+        ReadQuery query;
+        if (due == full) {
+            query = fullQueries.get(due);
+            if (query == null) {
+                query = createQuery(layout, due, full);
+                fullQueries.put(due, query);
+            }
+        } else {
+            int key = due | full << 16;
+            query = windowQueries.get(key);
+            if (query == null) {
+                query = createQuery(layout, due, full);
+                windowQueries.put(key, query);
+            }
+        }
+        for (int t = 0; t < Element.POLL_TIERS.length; t++) {
+            if ((due & (1 << t)) == 0) continue;
+            lastRead[t] = now;
+            readCount[t]++;
+        }
+        hookReads += query.slots.length;
+        //No visible element of these tiers needs data
+        return query.slots.length > 0 ? query : null;
+    }
+
+    /**
+     * Creates query for slots of tiers in due that are visible or in a tier of full
+     * Starts with the lowest sequence number of its slots, so no change is missed
+     * @param layout
+     * @param due
+     * @param full
+     * @return
+     */
+    private ReadQuery createQuery(ReadLayout layout, int due, int full) {
+        ReadQuery query = new ReadQuery(layout, selectSlots(layout, due, full));
+        long sequence = Long.MAX_VALUE;
+        for (int slot : query.slots) sequence = Math.min(sequence, slotSequences[slot]);
+        query.sequence = query.slots.length > 0 ? sequence : 0;
+        return query;
+    }
+
+    /**
+     * Saves sequence numbers of queries for their slots and removes the queries
+     * @param queries
+     */
+    private void clearQueries(HashMap<Integer, ReadQuery> queries) {
+        for (ReadQuery query : queries.values()) {
+            long sequence = query.sequence;
+            for (int slot : query.slots) slotSequences[slot] = Math.max(slotSequences[slot], sequence);
+        }
+        queries.clear();
+    }
+
+    /**
+     * Reads stable hooks with slower tiers and changed hooks with their own tier again
+     * Queries are created again if a slot has another tier
+     * @param now
+     */
+    private void retune(long now) {
+        savedReads += savedRate * (now - lastRetune);
+        lastRetune = now;
+        retuneNeeded = false;
+        boolean changed = false;
+        int mask = 0;
+        int slowed = 0;
+        double rate = 0;
+        for (int slot = 0; slot < effectiveTiers.length; slot++) {
+            long stable = now - lastChange[slot];
+            int slowdown = 0;
+            for (long time = STABLE_TIME; stable >= time && slowdown < MAX_SLOWDOWN; time *= 2) slowdown++;
+            int tier = Math.min(layout.tiers[slot] + slowdown, Element.POLL_TIERS.length - 1);
+            if (tier != effectiveTiers[slot]) {
+                effectiveTiers[slot] = tier;
+                changed = true;
+            }
+            mask |= 1 << tier;
+            if (tier != layout.tiers[slot]) {
+                slowed++;
+                rate += 1.0 / Element.POLL_TIERS[layout.tiers[slot]] - 1.0 / Element.POLL_TIERS[tier];
+            }
+        }
+        effectiveMask = mask;
+        slowedSlots = slowed;
+        savedRate = rate;
+        if (changed) {
+            clearQueries(fullQueries);
+            clearQueries(windowQueries);
+        }
+    }
+
+    /**
+     * Called on main thread when the value of slot changed
+     * The slot is read with its own tier again at the next poll
+     * @param layout
+     * @param slot
+     * @param now
+     */
+    void onValueChanged(ReadLayout layout, int slot, long now) {
+        if (layout != this.layout) return;
+        hits++;
+        lastChange[slot] = now;
+        if (effectiveTiers[slot] != layout.tiers[slot]) retuneNeeded = true;
+    }
+
+    /**
+     * Called when the user sent data with element, its hooks are read with their own tier again
+     * Hooks of other elements stay slowed down
+     * @param element
+     * @param now
+     */
+    void onUserInput(Element element, long now) {
+        if (layout == null) return;
+        boolean slowed = false;
+        for (int slot = 0; slot < lastChange.length; slot++) {
+            if (layout.elements[slot] != element) continue;
+            lastChange[slot] = now;
+            if (effectiveTiers[slot] != layout.tiers[slot]) slowed = true;
+        }
+        if (slowed) retune(now);
+    }
+
+    /**
+     * Returns time in ms between polls, the current interval of the fastest hook
+     * @param layout current layout
+     * @return
+     */
+    int getPollInterval(ReadLayout layout) {
+        if (layout != this.layout) return layout.getPollInterval();
+        return getPollInterval();
+    }
+
+    private int getPollInterval() {
+        if (effectiveMask == 0) return Element.DEFAULT_POLL_INTERVAL;
+        return Element.POLL_TIERS[Integer.numberOfTrailingZeros(effectiveMask)];
+    }
+
+    /**
+     * Returns number of read hooks, changed values and reads saved by slower tiers for log
+     * @return
+     */
+    String getStatistics() {
+        return hookReads + " hook reads, " + hits + " changed (" + getChangedPercent() + "%), " +
+                Math.round(savedReads) + " reads saved for stable hooks (" + getSavedPercent() + "%)";
+    }
+
+    /**
+     * Returns percentage of read hooks whose value changed
+     * @return
+     */
+    int getChangedPercent() {
+        return hookReads == 0 ? 0 : (int) Math.round(100.0 * hits / hookReads);
+    }
+
+    /**
+     * Returns percentage of hook reads that were saved by slower tiers
+     * @return
+     */
+    int getSavedPercent() {
+        long saved = Math.round(savedReads);
+        return hookReads + saved == 0 ? 0 : (int) Math.round(100.0 * saved / (hookReads + saved));
+    }
+
+    /**
+     * Returns slots of tiers in due that are visible or in a tier of full
+     * @param layout
+     * @param due
+     * @param full
+     * @return
+     */
+    private int[] selectSlots(ReadLayout layout, int due, int full) {
+        int count = 0;
+        int[] slots = new int[layout.size()];
+        for (int slot = 0; slot < layout.size(); slot++) {
+            int bit = 1 << effectiveTiers[slot];
+            if ((full & bit) != 0 || ((due & bit) != 0 && slot >= windowFrom && slot < windowTo))
+                slots[count++] = slot;
+        }
+        if (count == slots.length) return slots;
+        int[] result = new int[count];
+        System.arraycopy(slots, 0, result, 0, count);
+        return result;
+    }
+}
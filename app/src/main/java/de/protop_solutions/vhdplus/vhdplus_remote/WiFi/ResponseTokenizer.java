@@ -0,0 +1,253 @@
+/*
+    Name: ResponseTokenizer
+    Rev: 1.0
+    Creator: Leon Beier
+    Date: 18.10.2026
+    Copyright (c) 2026 Protop Solutions UG. All right reserved.
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy of
+    this java code and associated documentation files (the "Java Code"), to deal in the
+    Java Code without restriction, including without limitation the rights to use,
+    copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+    Java Code, and to permit persons to whom the Java Code is furnished to do so,
+    subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Java Code.
+
+    THE Java Code IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+    FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+    COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+    AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+    WITH THE Java Code OR THE USE OR OTHER DEALINGS IN THE Java Code.
+
+    Description:
+    Reusable buffer for a response of the wifi module that returns the '~' separated
+    values one after another. Values can be compared with element values without
+    creating Strings, so a String is only created for values that changed
+*/
+
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+import java.nio.charset.StandardCharsets;
+
+public class ResponseTokenizer {
+
+    //UTF-8 response without line breaks
+    private byte[] data = new byte[1024];
+    //Length of response without '~' at the end
+    private int length = 0;
+
+    //Current value from start to end (exclusive)
+    private int start = 0;
+    private int end = 0;
+    //Start of next value, > length if there is no next value
+    private int position = 0;
+
+    //Position after last decoded character
+    private int decodedEnd = 0;
+
+    //Layout of read request, null for other responses
+    ReadLayout layout;
+    //Query of read request with the slots of layout that were requested
+    ReadQuery query;
+
+    /**
+     * Copies response into buffer and removes line breaks
+     * @param src
+     * @param offset
+     * @param count
+     */
+    void read(byte[] src, int offset, int count) {
+        if (data.length < count) data = new byte[Math.max(count, data.length * 2)];
+        int n = 0;
+        for (int i = offset; i < offset + count; i++) {
+            if (src[i] != '\r' && src[i] != '\n') data[n++] = src[i];
+        }
+        setLength(n);
+    }
+
+    /**
+     * Sets response from text (e.g. message of push channel)
+     * @param response
+     */
+    public void set(String response) {
+        layout = null;
+        query = null;
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        read(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Removes '~' at the end like String.split does, then starts at first value
+     * @param n
+     */
+    private void setLength(int n) {
+        while (n > 0 && data[n - 1] == '~') n--;
+        length = n;
+        rewind();
+    }
+
+    /**
+     * Returns true if the response has no content
+     * @return
+     */
+    public boolean isEmpty() {
+        for (int i = 0; i < length; i++) if (data[i] > ' ') return false;
+        return true;
+    }
+
+    /**
+     * Starts again at first value
+     */
+    public void rewind() {
+        start = 0;
+        end = 0;
+        position = 0;
+    }
+
+    /**
+     * Moves to next value
+     * Returns false if there is no next value
+     * @return
+     */
+    public boolean next() {
+        if (position > length) return false;
+        start = position;
+        end = start;
+        while (end < length && data[end] != '~') end++;
+        position = end + 1;
+        return true;
+    }
+
+    /**
+     * Returns true if current value contains character
+     * @param c ASCII character
+     * @return
+     */
+    public boolean tokenContains(char c) {
+        for (int i = start; i < end; i++) if (data[i] == c) return true;
+        return false;
+    }
+
+    /**
+     * Returns true if current value equals s
+     * @param s
+     * @return
+     */
+    public boolean tokenEquals(String s) {
+        return s != null && match(start, s) == end;
+    }
+
+    /**
+     * Returns true if current value is the hook with type prefix of read requests
+     * E.g. tokenIsHook("l", "hook1") for "l_hook1"
+     * @param prefix
+     * @param hook
+     * @return
+     */
+    public boolean tokenIsHook(String prefix, String hook) {
+        int p = match(start, prefix);
+        if (p < 0 || p >= end || data[p] != '_' || hook == null) return false;
+        return match(p + 1, hook) == end;
+    }
+
+    /**
+     * Returns current value as String
+     * @return
+     */
+    public String tokenString() {
+        return new String(data, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns current value as number or def if it is no number
+     * @param def
+     * @return
+     */
+    public long tokenLong(long def) {
+        int i = start;
+        while (i < end && data[i] == ' ') i++;
+        int e = end;
+        while (e > i && data[e - 1] == ' ') e--;
+        if (i == e) return def;
+        long value = 0;
+        for (; i < e; i++) {
+            int d = data[i] - '0';
+            if (d < 0 || d > 9 || value > (Long.MAX_VALUE - d) / 10) return def;
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    /**
+     * Returns hash of current value, equal to hashCode of the value as String
+     * @return
+     */
+    public int tokenHash() {
+        int h = 0;
+        for (int p = start; p < end; p = decodedEnd) {
+            int cp = decode(p);
+            if (cp < 0) return 0;
+            if (cp >= 0x10000) {
+                h = 31 * h + Character.highSurrogate(cp);
+                h = 31 * h + Character.lowSurrogate(cp);
+            } else h = 31 * h + cp;
+        }
+        return h;
+    }
+
+    /**
+     * Compares UTF-8 bytes from position p with characters of s
+     * Returns position after s or -1 if bytes don't match s
+     * @param p
+     * @param s
+     * @return
+     */
+    private int match(int p, String s) {
+        int j = 0;
+        int n = s.length();
+        while (j < n) {
+            if (p >= end) return -1;
+            int cp = decode(p);
+            //Invalid UTF-8 is never equal to a value
+            if (cp < 0) return -1;
+            p = decodedEnd;
+            if (cp >= 0x10000) {
+                if (j + 1 >= n || s.charAt(j) != Character.highSurrogate(cp) ||
+                        s.charAt(j + 1) != Character.lowSurrogate(cp)) return -1;
+                j += 2;
+            } else {
+                if (s.charAt(j) != cp) return -1;
+                j++;
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Decodes UTF-8 character at position p of current value
+     * Returns code point or -1 if invalid and sets decodedEnd to position after character
+     * @param p
+     * @return
+     */
+    private int decode(int p) {
+        int b = data[p] & 0xFF;
+        if (b < 0x80) {
+            decodedEnd = p + 1;
+            return b;
+        } else if ((b & 0xE0) == 0xC0 && p + 1 < end) {
+            decodedEnd = p + 2;
+            return ((b & 0x1F) << 6) | (data[p + 1] & 0x3F);
+        } else if ((b & 0xF0) == 0xE0 && p + 2 < end) {
+            decodedEnd = p + 3;
+            return ((b & 0x0F) << 12) | ((data[p + 1] & 0x3F) << 6) | (data[p + 2] & 0x3F);
+        } else if ((b & 0xF8) == 0xF0 && p + 3 < end) {
+            decodedEnd = p + 4;
+            return ((b & 0x07) << 18) | ((data[p + 1] & 0x3F) << 12) |
+                    ((data[p + 2] & 0x3F) << 6) | (data[p + 3] & 0x3F);
+        }
+        return -1;
+    }
+}
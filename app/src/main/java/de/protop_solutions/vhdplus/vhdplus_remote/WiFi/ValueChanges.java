@@ -0,0 +1,63 @@
+/*
+    Name: ValueChanges
+    Rev: 1.0
+    Creator: Leon Beier
+    Date: 18.10.2026
+    Copyright (c) 2026 Protop Solutions UG. All right reserved.
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy of
+    this java code and associated documentation files (the "Java Code"), to deal in the
+    Java Code without restriction, including without limitation the rights to use,
+    copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+    Java Code, and to permit persons to whom the Java Code is furnished to do so,
+    subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Java Code.
+
+    THE Java Code IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+    FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+    COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+    AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+    WITH THE Java Code OR THE USE OR OTHER DEALINGS IN THE Java Code.
+
+
+    Description:
+    Values of one response that changed, found by the response worker.
+    Posted to the main thread and applied to the elements there
+*/
+
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+import java.util.Arrays;
+
+class ValueChanges {
+
+    //Layout the slots belong to
+    final ReadLayout layout;
+    //Number of changes
+    int size = 0;
+    //Slot in layout and new value of every change
+    int[] slots = new int[8];
+    String[] values = new String[8];
+
+    ValueChanges(ReadLayout layout) {
+        this.layout = layout;
+    }
+
+    /**
+     * Adds new value for slot of layout
+     * @param slot
+     * @param value
+     */
+    void add(int slot, String value) {
+        if (size == slots.length) {
+            slots = Arrays.copyOf(slots, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        slots[size] = slot;
+        values[size] = value;
+        size++;
+    }
+}
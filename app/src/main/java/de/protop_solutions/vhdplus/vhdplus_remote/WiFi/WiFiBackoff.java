@@ -0,0 +1,114 @@
+/*
+    Name: WiFiBackoff
+    Rev: 1.0
+    Creator: Leon Beier
+    Date: 18.10.2026
+    Copyright (c) 2026 Protop Solutions UG. All right reserved.
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy of
+    this java code and associated documentation files (the "Java Code"), to deal in the
+    Java Code without restriction, including without limitation the rights to use,
+    copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+    Java Code, and to permit persons to whom the Java Code is furnished to do so,
+    subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Java Code.
+
+    THE Java Code IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+    FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+    COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+    AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+    WITH THE Java Code OR THE USE OR OTHER DEALINGS IN THE Java Code.
+
+
+    Description:
+    Calculates the time until the next read request. After errors the time doubles
+    with random jitter, so many apps don't retry at the same moment. After the retry budget
+    is used up the module is only probed with the maximum delay until it answers again
+*/
+
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+import java.util.Random;
+
+class WiFiBackoff {
+
+    //Delay without errors
+    private final int baseDelay;
+    //Maximum delay after errors
+    private final int maxDelay;
+    //Number of errors with growing delay until the module is only probed
+    private final int retryBudget;
+    //Used for jitter
+    private final Random random;
+
+    //Errors since last response
+    private int errors = 0;
+
+    WiFiBackoff(int baseDelay, int maxDelay, int retryBudget, Random random) {
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.retryBudget = retryBudget;
+        this.random = random;
+    }
+
+    /**
+     * Counts error and returns delay until next request
+     * @return
+     */
+    int onError() {
+        if (errors < Integer.MAX_VALUE) errors++;
+        return getDelay();
+    }
+
+    /**
+     * Resets delay after a response
+     * Returns true if there were errors before, so the next request can be sent earlier
+     * @return
+     */
+    boolean onSuccess() {
+        boolean failed = errors > 0;
+        errors = 0;
+        return failed;
+    }
+
+    /**
+     * Returns delay until next request
+     * Base delay without errors, else base delay * 2^errors (max. maxDelay) with jitter
+     * The jitter keeps at least half of the delay
+     * @return
+     */
+    int getDelay() {
+        if (errors == 0) return baseDelay;
+        int exponent = Math.min(errors, Math.min(retryBudget, 30));
+        long delay = Math.min((long) baseDelay << exponent, maxDelay);
+        int half = (int) (delay / 2);
+        return half + random.nextInt(half + 1);
+    }
+
+    /**
+     * Returns true if all retries of the budget failed
+     * @return
+     */
+    boolean isExhausted() {
+        return errors >= retryBudget;
+    }
+
+    /**
+     * Returns true if exactly the last retry of the budget failed
+     * @return
+     */
+    boolean isJustExhausted() {
+        return errors == retryBudget;
+    }
+
+    /**
+     * Returns errors since last response
+     * @return
+     */
+    int getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+    Name: WiFiBatch
+    Rev: 1.0
+    Creator: Leon Beier
+    Date: 18.10.2026
+    Copyright (c) 2026 Protop Solutions UG. All right reserved.
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy of
+    this java code and associated documentation files (the "Java Code"), to deal in the
+    Java Code without restriction, including without limitation the rights to use,
+    copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+    Java Code, and to permit persons to whom the Java Code is furnished to do so,
+    subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Java Code.
+
+    THE Java Code IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+    FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+    COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+    AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+    WITH THE Java Code OR THE USE OR OTHER DEALINGS IN THE Java Code.
+
+
+    Description:
+    Collects send commands of one frame and sends them with one request.
+    The module answers with one line for every command in the same order,
+    the lines are returned to the callbacks of the commands.
+    If the module doesn't support batches, the commands are sent one by one
+*/
+
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+public class WiFiBatch {
+
+    //Time in ms commands are collected before they are sent (one frame)
+    static final int WINDOW = 16;
+    //Maximum number of commands that wait to be sent
+    static final int MAX_COMMANDS = 64;
+    //First line of batch response
+    private static final String MARKER = "M";
+
+    //Context of MainActivity
+    private final Context context;
+    //Defined IP of wifi module
+    private final String ipAddress;
+    //Sends collected commands on main thread
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable flush = this::flush;
+
+    //Commands that wait to be sent in order
+    private ArrayList<Command> commands = new ArrayList<>();
+    //False after the module answered a batch request with the wrong format
+    private volatile boolean supported = true;
+
+    /**
+     * One command with its callback
+     */
+    private static class Command {
+        final String type;
+        final String data;
+        final OnTaskCompleted listener;
+
+        Command(String type, String data, OnTaskCompleted listener) {
+            this.type = type;
+            this.data = data;
+            this.listener = listener;
+        }
+    }
+
+    public WiFiBatch(Context context, String ipAddress) {
+        this.context = context;
+        this.ipAddress = ipAddress;
+    }
+
+    /**
+     * Returns false after the module didn't accept a batch request
+     * @return
+     */
+    public boolean isSupported() {
+        return supported;
+    }
+
+    /**
+     * Adds command that is sent at the end of the frame
+     * Has to be called on main thread
+     * Returns false if too many commands are waiting, then the command is not sent
+     * @param type
+     * @param data
+     * @param listener callback with the answer of the module for this command (called in background)
+     * @return
+     */
+    public boolean add(String type, String data, OnTaskCompleted listener) {
+        if (commands.size() >= MAX_COMMANDS) return false;
+        commands.add(new Command(type, data, listener));
+        if (commands.size() == 1) handler.postDelayed(flush, WINDOW);
+        return true;
+    }
+
+    /**
+     * Sends commands of this frame with one request
+     * If too many requests are waiting, the commands are sent after the next frame
+     */
+    private void flush() {
+        if (commands.isEmpty()) return;
+        ArrayList<Command> batch = commands;
+        Runnable request;
+        if (batch.size() == 1) {
+            Command c = batch.get(0);
+            request = new WiFiRequest(context, ipAddress, "send", c.type, c.data, true, c.listener);
+        } else request = () -> sendBatch(batch);
+        if (WiFiScheduler.getScheduler(ipAddress).send(request)) commands = new ArrayList<>();
+        else handler.postDelayed(flush, WINDOW);
+    }
+
+    /**
+     * Sends commands with one request and returns answers to callbacks
+     * E.g. send?m=b=hook1%0As=hook2~1 with answer M%0AOK%0AOK
+     * Runs in background
+     * @param batch
+     */
+    private void sendBatch(ArrayList<Command> batch) {
+        if (!supported) {
+            sendSingle(batch);
+            return;
+        }
+        StringBuilder path = new StringBuilder("send?m=");
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) path.append('\n');
+            path.append(batch.get(i).type).append('=').append(batch.get(i).data);
+        }
+        String[] lines;
+        try {
+            lines = WiFiClient.getClient(ipAddress).requestLines(path.toString());
+        } catch (IOException e) {
+            e.printStackTrace();
+            //Error status -> module doesn't know batch requests
+            if (e.getMessage() != null && e.getMessage().startsWith("HTTP ")) {
+                supported = false;
+                sendSingle(batch);
+            }
+            else for (Command c : batch) c.listener.OnTaskCompleted("", true);
+            return;
+        }
+        if (lines.length == 0 || !lines[0].trim().equals(MARKER)) {
+            supported = false;
+            sendSingle(batch);
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            if (i + 1 < lines.length) batch.get(i).listener.OnTaskCompleted(lines[i + 1], false);
+            else batch.get(i).listener.OnTaskCompleted("", true);
+        }
+    }
+
+    /**
+     * Sends commands one by one in order
+     * Runs in background
+     * @param batch
+     */
+    private void sendSingle(ArrayList<Command> batch) {
+        for (Command c : batch)
+            new WiFiRequest(context, ipAddress, "send", c.type, c.data, true, c.listener).run();
+    }
+}
@@ -0,0 +1,626 @@
+/*
+    Name: WiFiClient
+    Rev: 1.0
+    Creator: Leon Beier
+    Date: 18.10.2026
+    Copyright (c) 2026 Protop Solutions UG. All right reserved.
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy of
+    this java code and associated documentation files (the "Java Code"), to deal in the
+    Java Code without restriction, including without limitation the rights to use,
+    copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+    Java Code, and to permit persons to whom the Java Code is furnished to do so,
+    subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Java Code.
+
+    THE Java Code IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+    FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+    COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+    AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+    WITH THE Java Code OR THE USE OR OTHER DEALINGS IN THE Java Code.
+
+    Description:
+    HTTP/1.1 client for one wifi module that keeps connections alive.
+    Sockets and buffers are reused for send and read requests, so the TCP handshake
+    is only done when the module closed the last connection.
+    Timeouts follow the measured round trip time of the module
+*/
+
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+
+public class WiFiClient {
+
+    //Clients for every device address
+    private static final HashMap<String, WiFiClient> clients = new HashMap<>();
+
+    //Maximum number of open connections that wait for the next request
+    private static final int MAX_IDLE_CONNECTIONS = 2;
+    //Idle connections older than this are closed instead of reused
+    private static final long MAX_IDLE_TIME = 30000;
+
+    //Host name or IP address of wifi module
+    private final String host;
+    //Port of wifi module (80 if not defined)
+    private final int port;
+    //Value for Host header (host with port if defined)
+    private final String hostHeader;
+    //Path in front of task if address contains one
+    private final String basePath;
+
+    //Connections that can be used for the next request
+    private final ArrayDeque<Connection> idleConnections = new ArrayDeque<>();
+
+    //Round trip time of requests, sets timeouts
+    private final WiFiRtt rtt = new WiFiRtt();
+    //Timeouts in ms if set with setTimeouts, else the estimate of rtt is used
+    private int connectTimeout = -1;
+    private int readTimeout = -1;
+
+    //Statistics
+    private int requestCount = 0;
+    private int openedCount = 0;
+    private int reusedCount = 0;
+
+    /**
+     * Returns client for ip address (with port)
+     * Creates new client if there is no client for this address
+     * @param ipAddress
+     * @return
+     */
+    public static synchronized WiFiClient getClient(String ipAddress) {
+        WiFiClient client = clients.get(ipAddress);
+        if (client == null) {
+            client = new WiFiClient(ipAddress);
+            clients.put(ipAddress, client);
+        }
+        return client;
+    }
+
+    WiFiClient(String ipAddress) {
+        String address = ipAddress == null ? "" : ipAddress.trim();
+        if (address.startsWith("http://")) address = address.substring(7);
+        int slash = address.indexOf('/');
+        if (slash >= 0) {
+            String path = address.substring(slash);
+            basePath = path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+            address = address.substring(0, slash);
+        } else basePath = "";
+        hostHeader = address;
+        int colon = address.lastIndexOf(':');
+        if (colon >= 0 && address.indexOf(':') == colon) {
+            host = address.substring(0, colon);
+            port = parsePort(address.substring(colon + 1));
+        } else {
+            host = address;
+            port = 80;
+        }
+    }
+
+    /**
+     * Returns port of address or 80 if the port is no valid number
+     * The port is entered as text, so a wrong port must not crash the app
+     * @param text
+     * @return
+     */
+    static int parsePort(String text) {
+        try {
+            int port = Integer.parseInt(text.trim());
+            if (port > 0 && port <= 65535) return port;
+        } catch (NumberFormatException ignored) { }
+        return 80;
+    }
+
+    String getHost() {
+        return host;
+    }
+
+    int getPort() {
+        return port;
+    }
+
+    String getHostHeader() {
+        return hostHeader;
+    }
+
+    String getBasePath() {
+        return basePath;
+    }
+
+    /**
+     * Sets fixed timeouts in ms for new connections and the next requests
+     * -1 uses the timeout from the measured round trip time again
+     * @param connectTimeout
+     * @param readTimeout
+     */
+    public void setTimeouts(int connectTimeout, int readTimeout) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+    private int getConnectTimeout() {
+        return connectTimeout >= 0 ? connectTimeout : rtt.getTimeout();
+    }
+
+    private int getReadTimeout() {
+        return readTimeout >= 0 ? readTimeout : rtt.getTimeout();
+    }
+
+    /**
+     * Returns smoothed round trip time of requests in ms or -1 if no request was answered yet
+     * @return
+     */
+    public int getRtt() {
+        return rtt.getRtt();
+    }
+
+    /**
+     * Returns current timeout for connect and read in ms
+     * @return
+     */
+    public int getTimeout() {
+        return getReadTimeout();
+    }
+
+    /**
+     * Sends GET request for path (e.g. "send?b=hook1") and returns response
+     * Line breaks of the response are removed
+     * @param path
+     * @return
+     * @throws IOException
+     */
+    public String request(String path) throws IOException {
+        Connection connection = execute(path);
+        String response = connection.bodyString();
+        releaseConnection(connection);
+        return response;
+    }
+
+    /**
+     * Sends GET request for path and returns lines of the response
+     * @param path
+     * @return
+     * @throws IOException
+     */
+    public String[] requestLines(String path) throws IOException {
+        Connection connection = execute(path);
+        String response = new String(connection.body, 0, connection.bodyLength, StandardCharsets.UTF_8);
+        releaseConnection(connection);
+        String[] lines = response.split("\n");
+        for (int i = 0; i < lines.length; i++) {
+            if (lines[i].endsWith("\r")) lines[i] = lines[i].substring(0, lines[i].length() - 1);
+        }
+        return lines;
+    }
+
+    /**
+     * Sends GET request for path and copies response into reusable buffer
+     * Line breaks of the response are removed
+     * @param path
+     * @param response
+     * @throws IOException
+     */
+    public void request(String path, ResponseTokenizer response) throws IOException {
+        Connection connection = execute(path);
+        response.read(connection.body, 0, connection.bodyLength);
+        releaseConnection(connection);
+    }
+
+    /**
+     * Sends request with idle or new connection and reads response
+     * @param path
+     * @return connection with response in body buffer
+     * @throws IOException
+     */
+    private Connection execute(String path) throws IOException {
+        Connection connection;
+        try {
+            connection = takeConnection();
+            long start = System.nanoTime();
+            try {
+                connection.execute(path);
+            } catch (IOException e) {
+                connection.close();
+                //Module closed idle connection -> request was not received, try again with new one
+                if (!connection.retryable(e, path)) throw e;
+                connection = openConnection();
+                start = System.nanoTime();
+                try {
+                    connection.execute(path);
+                } catch (IOException e2) {
+                    connection.close();
+                    throw e2;
+                }
+            }
+            //Only the attempt that was answered is measured
+            rtt.addSample((System.nanoTime() - start) / 1e6);
+        } catch (SocketTimeoutException e) {
+            rtt.onTimeout();
+            throw e;
+        }
+        synchronized (this) {
+            requestCount++;
+            if (connection.uses > 1) reusedCount++;
+        }
+        return connection;
+    }
+
+    /**
+     * Closes all connections that wait for the next request
+     */
+    public void closeIdleConnections() {
+        synchronized (idleConnections) {
+            for (Connection c : idleConnections) c.close();
+            idleConnections.clear();
+        }
+    }
+
+    public synchronized int getRequestCount() {
+        return requestCount;
+    }
+
+    public synchronized int getOpenedCount() {
+        return openedCount;
+    }
+
+    public synchronized int getReusedCount() {
+        return reusedCount;
+    }
+
+    /**
+     * Returns share of successful requests that used an already open connection (0 - 1)
+     * @return
+     */
+    public synchronized float getReuseRate() {
+        if (requestCount == 0) return 0;
+        return (float) reusedCount / requestCount;
+    }
+
+    /**
+     * Returns statistics as text for log
+     * @return
+     */
+    public synchronized String getStatistics() {
+        return hostHeader + ": " + requestCount + " requests, " + openedCount +
+                " connections opened, " + reusedCount + " reused (" +
+                Math.round(getReuseRate() * 100) + "%), rtt " + rtt.getRtt() + " ms +- " +
+                rtt.getRttVariance() + ", timeout " + getReadTimeout() + " ms";
+    }
+
+    /**
+     * Returns idle connection or opens a new one
+     * @return
+     * @throws IOException
+     */
+    private Connection takeConnection() throws IOException {
+        long now = System.currentTimeMillis();
+        synchronized (idleConnections) {
+            Connection c;
+            while ((c = idleConnections.pollFirst()) != null) {
+                if (now - c.lastUsed < MAX_IDLE_TIME && c.isUsable()) return c;
+                c.close();
+            }
+        }
+        return openConnection();
+    }
+
+    private Connection openConnection() throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setKeepAlive(true);
+            socket.connect(new InetSocketAddress(host, port), getConnectTimeout());
+            socket.setSoTimeout(getReadTimeout());
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        synchronized (this) {
+            openedCount++;
+        }
+        return new Connection(socket);
+    }
+
+    /**
+     * Keeps connection for next request if module allows it
+     * @param connection
+     */
+    private void releaseConnection(Connection connection) {
+        if (!connection.keepAlive) {
+            connection.close();
+            return;
+        }
+        connection.lastUsed = System.currentTimeMillis();
+        synchronized (idleConnections) {
+            if (idleConnections.size() < MAX_IDLE_CONNECTIONS) {
+                idleConnections.addFirst(connection);
+                return;
+            }
+        }
+        connection.close();
+    }
+
+    /**
+     * Escapes characters that are not allowed in the request line
+     * Characters like '~', '=' and '?' of the protocol stay unchanged
+     * @param path
+     * @return
+     */
+    static String encodePath(String path) {
+        StringBuilder sb = null;
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c > ' ' && c < 127 && c != '#' && c != '%' && c != '"' && c != '<' && c != '>') {
+                if (sb != null) sb.append(c);
+                continue;
+            }
+            if (sb == null) sb = new StringBuilder(path.length() + 16).append(path, 0, i);
+            byte[] bytes = String.valueOf(c).getBytes(StandardCharsets.UTF_8);
+            if (Character.isHighSurrogate(c) && i + 1 < path.length()) {
+                bytes = path.substring(i, i + 2).getBytes(StandardCharsets.UTF_8);
+                i++;
+            }
+            for (byte b : bytes) {
+                sb.append('%');
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+                sb.append(Character.forDigit(b & 0xF, 16));
+            }
+        }
+        return sb == null ? path : sb.toString();
+    }
+
+    /**
+     * One socket to the wifi module with its buffers
+     */
+    private class Connection {
+
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+
+        //Buffer for bytes received from socket
+        private final byte[] readBuffer = new byte[1024];
+        private int readPosition = 0;
+        private int readLimit = 0;
+
+        //Buffer for request and response body
+        private byte[] body = new byte[1024];
+        private int bodyLength = 0;
+
+        //Used for request line and headers
+        private final StringBuilder line = new StringBuilder(128);
+
+        //Number of completed requests with this connection
+        private int uses = 0;
+        //True if first byte of response was received
+        private boolean responseStarted;
+        //False if module wants to close connection after response
+        boolean keepAlive;
+        long lastUsed;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = socket.getInputStream();
+            this.out = socket.getOutputStream();
+        }
+
+        /**
+         * Writes request and reads complete response into body buffer
+         * @param path
+         * @throws IOException
+         */
+        void execute(String path) throws IOException {
+            responseStarted = false;
+            socket.setSoTimeout(getReadTimeout());
+            line.setLength(0);
+            line.append("GET ").append(basePath).append('/').append(encodePath(path))
+                    .append(" HTTP/1.1\r\nHost: ").append(hostHeader)
+                    .append("\r\nConnection: keep-alive\r\n\r\n");
+            int length = line.length();
+            ensureBody(length);
+            for (int i = 0; i < length; i++) body[i] = (byte) line.charAt(i);
+            out.write(body, 0, length);
+            out.flush();
+
+            //Status line (headers are parsed in line buffer without creating Strings)
+            readLine();
+            responseStarted = true;
+            int space = indexOf(' ', 0);
+            if (space < 0 || line.length() < space + 4) throw new IOException("Invalid response: " + line);
+            int code = (int) parseNumber(space + 1, space + 4, 10);
+            if (code < 0) throw new IOException("Invalid response: " + line);
+            keepAlive = !regionEquals(0, "HTTP/1.0");
+            //Status text for error message
+            String status = code < 200 || code >= 300 ? line.substring(space + 1) : null;
+
+            //Headers
+            long contentLength = -1;
+            boolean chunked = false;
+            while (readLine() > 0) {
+                int colon = indexOf(':', 0);
+                if (colon < 0) continue;
+                int value = colon + 1;
+                while (value < line.length() && line.charAt(value) == ' ') value++;
+                if (regionEquals(0, "Content-Length:")) contentLength = parseNumber(value, line.length(), 10);
+                else if (regionEquals(0, "Transfer-Encoding:")) chunked = regionEquals(value, "chunked");
+                else if (regionEquals(0, "Connection:"))
+                    keepAlive = regionEquals(value, "keep-alive") || (keepAlive && !regionEquals(value, "close"));
+            }
+
+            //Body
+            bodyLength = 0;
+            if (chunked) {
+                while (true) {
+                    readLine();
+                    int extension = indexOf(';', 0);
+                    long size = parseNumber(0, extension < 0 ? line.length() : extension, 16);
+                    if (size < 0) throw new IOException("Invalid chunk size: " + line);
+                    if (size == 0) break;
+                    readBody((int) size);
+                    readLine();
+                }
+                while (readLine() > 0);
+            } else if (contentLength >= 0) {
+                readBody((int) contentLength);
+            } else {
+                //Body ends when module closes connection
+                keepAlive = false;
+                int b;
+                while ((b = readByte()) >= 0) {
+                    ensureBody(bodyLength + 1);
+                    body[bodyLength++] = (byte) b;
+                }
+            }
+            uses++;
+
+            if (status != null) throw new IOException("HTTP " + status);
+        }
+
+        /**
+         * Returns true if request failed before response, because module closed reused connection
+         * A timeout means the module received the request and is slow, so it is not sent again.
+         * Send requests are never sent again, so a button press is not handled twice
+         * @param e error of request
+         * @param path
+         * @return
+         */
+        boolean retryable(IOException e, String path) {
+            if (uses == 0 || responseStarted || path.startsWith("send")) return false;
+            //SocketTimeoutException is no SocketException, only closed or reset connections are retried
+            return e instanceof EOFException || e instanceof SocketException;
+        }
+
+        /**
+         * Returns false if module closed connection or sent unexpected data
+         * @return
+         */
+        boolean isUsable() {
+            try {
+                return !socket.isClosed() && !socket.isInputShutdown() &&
+                        readPosition == readLimit && in.available() == 0;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Returns body without line breaks
+         * @return
+         */
+        String bodyString() {
+            int length = 0;
+            for (int i = 0; i < bodyLength; i++) {
+                if (body[i] != '\r' && body[i] != '\n') body[length++] = body[i];
+            }
+            return new String(body, 0, length, StandardCharsets.UTF_8);
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) { }
+        }
+
+        private void ensureBody(int size) {
+            if (body.length < size) {
+                byte[] b = new byte[Math.max(size, body.length * 2)];
+                System.arraycopy(body, 0, b, 0, bodyLength);
+                body = b;
+            }
+        }
+
+        private void readBody(int size) throws IOException {
+            ensureBody(bodyLength + size);
+            while (size > 0) {
+                if (readPosition == readLimit && !fill()) throw new EOFException("Connection closed");
+                int n = Math.min(size, readLimit - readPosition);
+                System.arraycopy(readBuffer, readPosition, body, bodyLength, n);
+                readPosition += n;
+                bodyLength += n;
+                size -= n;
+            }
+        }
+
+        private int readByte() throws IOException {
+            if (readPosition == readLimit && !fill()) return -1;
+            return readBuffer[readPosition++] & 0xFF;
+        }
+
+        private boolean fill() throws IOException {
+            int n = in.read(readBuffer, 0, readBuffer.length);
+            if (n <= 0) return false;
+            readPosition = 0;
+            readLimit = n;
+            return true;
+        }
+
+        /**
+         * Reads line into line buffer and returns its length
+         * @return
+         * @throws IOException
+         */
+        private int readLine() throws IOException {
+            line.setLength(0);
+            int b;
+            while ((b = readByte()) != '\n') {
+                if (b < 0) throw new EOFException("Connection closed");
+                if (b != '\r') line.append((char) b);
+            }
+            return line.length();
+        }
+
+        private int indexOf(char c, int from) {
+            for (int i = from; i < line.length(); i++) if (line.charAt(i) == c) return i;
+            return -1;
+        }
+
+        /**
+         * Returns true if line buffer contains s at position (ignoring case)
+         * @param position
+         * @param s
+         * @return
+         */
+        private boolean regionEquals(int position, String s) {
+            if (line.length() < position + s.length()) return false;
+            for (int i = 0; i < s.length(); i++) {
+                if (Character.toLowerCase(line.charAt(position + i)) != Character.toLowerCase(s.charAt(i)))
+                    return false;
+            }
+            return true;
+        }
+
+        /**
+         * Parses number in line buffer from start to end (spaces are ignored)
+         * Returns -1 if there is no valid number
+         * @param start
+         * @param end
+         * @param radix
+         * @return
+         */
+        private long parseNumber(int start, int end, int radix) {
+            long value = -1;
+            for (int i = start; i < end; i++) {
+                char c = line.charAt(i);
+                if (c == ' ') continue;
+                int d = Character.digit(c, radix);
+                if (d < 0 || value > Integer.MAX_VALUE) return -1;
+                value = (value < 0 ? 0 : value * radix) + d;
+            }
+            return value;
+        }
+    }
+}
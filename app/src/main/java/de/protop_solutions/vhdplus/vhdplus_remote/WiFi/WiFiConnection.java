@@ -30,10 +30,9 @@
 package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
 
 import android.content.Context;
-import android.net.ConnectivityManager;
-import android.net.NetworkInfo;
-import android.os.AsyncTask;
+import android.os.SystemClock;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 
 import de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView.Element;
@@ -44,30 +43,88 @@ public class WiFiConnection {
     private Context context;
     //Elements in recycler view
     private ArrayList<Element> elements;
+    //Device key of elements that are read by this connection, null for all elements
+    private final String device;
+    //IP address (+ port) of module of connect activity, elements with this device are read with device ""
+    private final String defaultIp;
     //Callback
     OnTaskCompleted listener;
+    //Callback for read requests
+    OnReadCompleted readListener;
+    //Cached state of network connection
+    private final WiFiNetworkState networkState;
+    //Response buffers of handled read requests that can be used again
+    private final ArrayDeque<ResponseTokenizer> freeResponses = new ArrayDeque<>();
+    //Hooks query and response values of elements, created again after element list changed
+    private volatile ReadLayout layout;
+    //True after the module answered with a delta response, seq is only sent to these modules
+    private volatile boolean deltaReads = false;
+    //Selects hooks that are due for the next read request
+    private final ReadSelector readSelector = new ReadSelector();
+    //Push channel to wifi module, null if polling is used
+    private volatile WiFiSocket socket;
+    //UDP transport for data without response, null if http is used
+    private WiFiDatagram datagram;
+    //Collects send requests of one frame, null until first send
+    private WiFiBatch batch;
+    //Push channel and hooks of last subscription
+    private WiFiSocket subscribedSocket;
+    private String subscribedHooks;
 
-    public WiFiConnection(Context context, ArrayList<Element> elements){
+    /**
+     * Connection that only reads the elements of one wifi module
+     * @param context
+     * @param elements
+     * @param device device key of elements (see WiFiDevices.getDeviceKey), null for all elements
+     * @param defaultIp IP address (+ port) of module of connect activity
+     */
+    public WiFiConnection(Context context, ArrayList<Element> elements, String device, String defaultIp){
         this.context = context;
         this.elements = elements;
+        this.device = device;
+        this.defaultIp = defaultIp;
+        layout = new ReadLayout(elements, device, defaultIp);
+        networkState = new WiFiNetworkState(context);
     }
 
     public void setListener(OnTaskCompleted listener) {
         this.listener = listener;
     }
 
+    public void setReadListener(OnReadCompleted readListener) {
+        this.readListener = readListener;
+    }
+
     /**
      * Returns true if internet connection present
+     * Uses the cached state while the network callback is registered
      * @return
      */
     public boolean checkConnection(){
-        ConnectivityManager connectivityManager =
-                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
-        if (connectivityManager != null){
-            NetworkInfo activeNetworkInfo = connectivityManager.getActiveNetworkInfo();
-            if (activeNetworkInfo.isConnected()) return true;
-        }
-        return false;
+        return networkState.isConnected();
+    }
+
+    /**
+     * Registers network callback, so the connection state is cached
+     * @param listener Called in background when the connection is lost or back
+     */
+    public void startNetworkCallback(OnConnectionChanged listener){
+        networkState.start(listener);
+    }
+
+    /**
+     * Unregisters network callback
+     */
+    public void stopNetworkCallback(){
+        networkState.stop();
+    }
+
+    /**
+     * Returns true if the listener of startNetworkCallback is called when the connection is back
+     * @return
+     */
+    public boolean isConnectionObserved(){
+        return networkState.isObserved();
     }
 
     /**
@@ -75,79 +132,291 @@ public class WiFiConnection {
      * E.g. that button pressed or slider value
      * type = b for button, s for slider...
      * data = hook ~ value
+     * Uses UDP for button, switch and slider if selected, else push channel if connected
+     * Else data of one frame is sent with one request if the module supports it
+     * Returns false if too many requests are waiting, then the data is not sent
+     * @param ipAddress
+     * @param type
+     * @param data
+     * @return
+     */
+    public boolean sendData(String ipAddress, String type, String data) {
+        return sendData(ipAddress, type, data, null);
+    }
+
+    /**
+     * Sends data to wifi module and calls completed after the response was handled
+     * Over UDP or the push channel completed is called as soon as the data is queued
+     * Returns false if too many requests are waiting, then the data is not sent
      * @param ipAddress
      * @param type
      * @param data
+     * @param completed Callback after request (called in background), can be null
+     * @return
      */
-    public void sendData(String ipAddress, String type, String data) {
+    public boolean sendData(String ipAddress, String type, String data, OnTaskCompleted completed) {
+        WiFiDatagram d = datagram;
+        if (d != null && WiFiDatagram.canSend(type)) {
+            if (!d.send(type, data)) return false;
+            if (completed != null) completed.OnTaskCompleted("", false);
+            return true;
+        }
+        WiFiSocket s = socket;
+        if (s != null && s.isOpen()) {
+            s.send(type + "=" + data);
+            if (completed != null) completed.OnTaskCompleted("", false);
+            return true;
+        }
+        OnTaskCompleted callback = listener;
+        if (completed != null) callback = (response, error) -> {
+            if (listener != null) listener.OnTaskCompleted(response, error);
+            completed.OnTaskCompleted(response, error);
+        };
+        if (batch == null) batch = new WiFiBatch(context, ipAddress);
+        if (batch.isSupported()) return batch.add(type, data, callback);
         WiFiRequest wifiRequest = new WiFiRequest(this.context, ipAddress,
-                "send", type, data, true, listener);
-        wifiRequest.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+                "send", type, data, true, callback);
+        return WiFiScheduler.getScheduler(ipAddress).send(wifiRequest);
+    }
+
+    /**
+     * Selects UDP for button, switch and slider data
+     * Console data and read requests still use http
+     * @param ipAddress
+     * @param udp
+     */
+    public void setUdpTransport(String ipAddress, boolean udp) {
+        if (datagram != null) datagram.close();
+        datagram = udp ? new WiFiDatagram(ipAddress) : null;
+    }
+
+    /**
+     * Returns statistics of UDP transport or null if http is used
+     * @return
+     */
+    public String getUdpStatistics() {
+        return datagram == null ? null : datagram.getStatistics();
     }
 
     /**
      * Requests data for elements like LED or display in element list
+     * Only hooks of tiers whose interval is over are requested. If the visible positions are known,
+     * elements that are not visible are read every ReadSelector.FULL_READ_INTERVAL reads of their tier
+     * Sends sequence number of last response after the module answered with a delta response,
+     * so the module only returns changed values
+     * Nothing is requested while the last read request is running, so due hooks are not dropped
      * @param ipAddress
      */
     public void requestData(String ipAddress) {
-        String hooks = "";
-        for (Element e: elements) {
-            String type = "";
-            switch(e.getType()){
-                case Element.TYPE_LED:
-                case Element.TYPE_LED10:
-                    type = "l";
-                    break;
-                case Element.TYPE_RGBLED:
-                case Element.TYPE_RGBLED10:
-                    type = "r";
-                    break;
-                case Element.TYPE_DISPLAY:
-                    type = "d";
-                    break;
-                case Element.TYPE_CONSOLE:
-                    type = "c";
-                    break;
-            }
-            if (isReceivingElement(e.getType())){
-                for (String h: e.getHooks()) {
-                    hooks = hooks + "~" + type + "_" + h;
-                }
-            }
+        WiFiScheduler scheduler = WiFiScheduler.getScheduler(ipAddress);
+        if (scheduler.isReading()) return;
+        ReadQuery query = readSelector.next(getReadLayout(), SystemClock.uptimeMillis());
+        if (query == null) return;
+        ResponseTokenizer response;
+        synchronized (freeResponses) {
+            response = freeResponses.isEmpty() ? new ResponseTokenizer() : freeResponses.pop();
         }
-        if (hooks != ""){
-            WiFiRequest connectionAsyncTask = new WiFiRequest(this.context, ipAddress,
-                    "read", "hooks", hooks, false, listener);
-            connectionAsyncTask.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+        response.layout = query.layout;
+        response.query = query;
+        WiFiRequest wifiRequest = new WiFiRequest(this.context, ipAddress,
+                query.getPath(deltaReads), response, readListener);
+        scheduler.read(wifiRequest);
+    }
+
+    /**
+     * Sets positions of first and last visible element, -1 if unknown
+     * Returns true if elements became visible that were not visible before
+     * @param first
+     * @param last
+     * @return
+     */
+    public boolean setVisiblePositions(int first, int last) {
+        return readSelector.setVisiblePositions(first, last);
+    }
+
+    /**
+     * Returns time in ms until the next read request, the current interval of the fastest hook
+     * Stable hooks are read with slower intervals
+     * @return
+     */
+    public int getPollInterval() {
+        return readSelector.getPollInterval(getReadLayout());
+    }
+
+    /**
+     * Called on main thread after values changed, so changed hooks are read with their own interval again
+     * @param changes
+     */
+    void onValuesChanged(ValueChanges changes) {
+        long now = SystemClock.uptimeMillis();
+        for (int i = 0; i < changes.size; i++) readSelector.onValueChanged(changes.layout, changes.slots[i], now);
+    }
+
+    /**
+     * Called on main thread after the user sent data with element,
+     * so the hooks of the element are read with their own interval again
+     * @param element
+     */
+    public void onUserInput(Element element) {
+        readSelector.onUserInput(element, SystemClock.uptimeMillis());
+    }
+
+    /**
+     * Returns number of read hooks, changed values and reads saved for stable hooks
+     * @return
+     */
+    public String getPollStatistics() {
+        return readSelector.getStatistics();
+    }
+
+    /**
+     * Returns percentage of read hooks whose value changed
+     * @return
+     */
+    public int getChangedPercent() {
+        return readSelector.getChangedPercent();
+    }
+
+    /**
+     * Returns percentage of hook reads that were saved for stable hooks
+     * @return
+     */
+    public int getSavedPercent() {
+        return readSelector.getSavedPercent();
+    }
+
+    /**
+     * Returns buffer of read request after the response was handled, so it is used again
+     * @param response
+     */
+    void recycleResponse(ResponseTokenizer response) {
+        synchronized (freeResponses) {
+            freeResponses.push(response);
         }
     }
 
     /**
-     * Returns true if type is type of element that needs data from wifi module
+     * Saves sequence number of delta response for next request with the same hooks
+     * The next requests send seq, because the module supports delta responses
+     * Can be called in background
+     * @param response
+     * @param sequence
+     */
+    void setReadSequence(ResponseTokenizer response, long sequence) {
+        deltaReads = true;
+        if (response.query != null) response.query.sequence = sequence;
+    }
+
+    /**
+     * Called after a full response, the next requests are sent without seq
+     * Can be called in background
+     * @param response
+     */
+    void setFullRead(ResponseTokenizer response) {
+        deltaReads = false;
+        if (response.query != null) response.query.sequence = 0;
+    }
+
+    /**
+     * Returns hooks query and response values of elements
+     * Created again after the element list changed, the returned layout never changes
+     * Can be called in background
+     * @return
+     */
+    ReadLayout getReadLayout() {
+        return layout;
+    }
+
+    /**
+     * Has to be called when elements are added, removed or moved
+     * Creates layout for new element list and updates hooks of push channel
+     */
+    public void onElementsChanged() {
+        layout = new ReadLayout(elements, device, defaultIp);
+        subscribeHooks();
+    }
+
+    /**
+     * Returns true if at least one element needs data from wifi module
+     * @return
+     */
+    public boolean hasReceivingElement() {
+        return getReadLayout().size() > 0;
+    }
+
+    /**
+     * Returns letter for hooks of element type in requests
+     * E.g. "l" for LED and 10 LEDs
      * @param type
      * @return
      */
-    static boolean isReceivingElement(int type){
+    static String getHookPrefix(int type) {
         switch(type){
             case Element.TYPE_LED:
             case Element.TYPE_LED10:
+                return "l";
             case Element.TYPE_RGBLED:
             case Element.TYPE_RGBLED10:
+                return "r";
             case Element.TYPE_DISPLAY:
+                return "d";
             case Element.TYPE_CONSOLE:
-                return true;
+                return "c";
         }
-        return false;
+        return "";
     }
 
     /**
-     * Checks if at least one element in elements needs data from wifi module
-     * @param elements
+     * Opens push channel to wifi module
+     * Returns false if the module does not support the push channel
+     * Blocks until connected, so don't call on main thread
+     * @param ipAddress
+     * @param pushListener Callback for pushed values and end of connection (called on reader thread)
+     * @return
+     */
+    public boolean openPushChannel(String ipAddress, OnTaskCompleted pushListener) {
+        WiFiSocket s = new WiFiSocket(ipAddress, pushListener);
+        if (!s.connect(4000)) return false;
+        socket = s;
+        return true;
+    }
+
+    /**
+     * Closes push channel, so data is requested and sent with http requests again
+     */
+    public void closePushChannel() {
+        WiFiSocket s = socket;
+        socket = null;
+        if (s != null) s.close();
+    }
+
+    /**
+     * Tells wifi module the hooks to push values for
+     */
+    public void subscribeHooks() {
+        WiFiSocket s = socket;
+        if (s == null || !s.isOpen()) return;
+        String hooks = getReadLayout().hooks;
+        if (s == subscribedSocket && hooks.equals(subscribedHooks)) return;
+        subscribedSocket = s;
+        subscribedHooks = hooks;
+        s.send("hooks=" + hooks);
+    }
+
+    /**
+     * Returns true if type is type of element that needs data from wifi module
+     * @param type
      * @return
      */
-    public static boolean listHasReceivingElement(ArrayList<Element> elements){
-        for (Element e : elements){
-            if(isReceivingElement(e.getType())) return true;
+    public static boolean isReceivingElement(int type){
+        switch(type){
+            case Element.TYPE_LED:
+            case Element.TYPE_LED10:
+            case Element.TYPE_RGBLED:
+            case Element.TYPE_RGBLED10:
+            case Element.TYPE_DISPLAY:
+            case Element.TYPE_CONSOLE:
+                return true;
         }
         return false;
     }
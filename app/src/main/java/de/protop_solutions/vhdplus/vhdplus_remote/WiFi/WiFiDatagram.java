@@ -0,0 +1,153 @@
+/*
+    Name: WiFiDatagram
+    Rev: 1.0
+    Creator: Leon Beier
+    Date: 18.10.2026
+    Copyright (c) 2026 Protop Solutions UG. All right reserved.
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy of
+    this java code and associated documentation files (the "Java Code"), to deal in the
+    Java Code without restriction, including without limitation the rights to use,
+    copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+    Java Code, and to permit persons to whom the Java Code is furnished to do so,
+    subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Java Code.
+
+    THE Java Code IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+    FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+    COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+    AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+    WITH THE Java Code OR THE USE OR OTHER DEALINGS IN THE Java Code.
+
+
+    Description:
+    UDP transport for send commands without response (button, switch and slider).
+    Every datagram contains a session and sequence number, so the module can drop
+    datagrams that arrive late or in the wrong order
+*/
+
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class WiFiDatagram {
+
+    //Maximum number of datagrams that wait to be sent
+    static final int MAX_WAITING = 64;
+
+    //Host and port of wifi module (same port as http)
+    private final String host;
+    private final int port;
+    //Random number for this app start, so the module resets the sequence number
+    private final int session;
+    //Sequence number of last datagram
+    private long sequence = 0;
+
+    //Sends datagrams in order, so the network is never used on the main thread
+    private final ThreadPoolExecutor sender;
+    //Socket is opened with first datagram
+    private DatagramSocket socket;
+
+    //Statistics
+    private int sentCount = 0;
+    private int failedCount = 0;
+
+    public WiFiDatagram(String ipAddress) {
+        WiFiClient client = WiFiClient.getClient(ipAddress);
+        host = client.getHost();
+        port = client.getPort();
+        session = new SecureRandom().nextInt() & 0x7FFFFFFF;
+        sender = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(MAX_WAITING));
+        sender.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns true if data of this type can be sent without response
+     * Console data is answered by the module, so it is sent with http requests
+     * @param type
+     * @return
+     */
+    public static boolean canSend(String type) {
+        return type.equals("b") || type.equals("s") || type.equals("i");
+    }
+
+    /**
+     * Sends data in background without waiting for a response
+     * E.g. "12345~7~b=hook1" for button with hook "hook1" and sequence number 7
+     * Returns false if too many datagrams are waiting
+     * @param type
+     * @param data
+     * @return
+     */
+    public boolean send(String type, String data) {
+        long seq;
+        synchronized (this) {
+            seq = ++sequence;
+        }
+        String message = session + "~" + seq + "~" + type + "=" + data;
+        try {
+            sender.execute(() -> write(message));
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes datagram, only called by sender thread
+     * @param message
+     */
+    private void write(String message) {
+        try {
+            if (socket == null) {
+                socket = new DatagramSocket();
+                socket.connect(new InetSocketAddress(host, port));
+            }
+            byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+            socket.send(new DatagramPacket(bytes, bytes.length));
+            synchronized (this) {
+                sentCount++;
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+            if (socket != null) socket.close();
+            socket = null;
+            synchronized (this) {
+                failedCount++;
+            }
+        }
+    }
+
+    /**
+     * Closes socket after the waiting datagrams were sent
+     */
+    public void close() {
+        try {
+            sender.execute(() -> {
+                if (socket != null) socket.close();
+                socket = null;
+            });
+        } catch (RejectedExecutionException ignored) { }
+    }
+
+    /**
+     * Returns statistics for log
+     * @return
+     */
+    public synchronized String getStatistics() {
+        return sentCount + " datagrams sent, " + failedCount + " failed";
+    }
+}
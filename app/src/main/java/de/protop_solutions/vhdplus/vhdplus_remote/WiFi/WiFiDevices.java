@@ -0,0 +1,238 @@
+/*
+    Name: WiFiDevices
+    Rev: 1.0
+    Creator: Leon Beier
+    Date: 18.10.2026
+    Copyright (c) 2026 Protop Solutions UG. All right reserved.
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy of
+    this java code and associated documentation files (the "Java Code"), to deal in the
+    Java Code without restriction, including without limitation the rights to use,
+    copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+    Java Code, and to permit persons to whom the Java Code is furnished to do so,
+    subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Java Code.
+
+    THE Java Code IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+    FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+    COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+    AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+    WITH THE Java Code OR THE USE OR OTHER DEALINGS IN THE Java Code.
+
+
+    Description:
+    Connections and timers for all wifi modules of the element list.
+    Every module has its own timer with its own backoff, and its own connection pool
+    and request lanes (WiFiClient and WiFiScheduler per IP address),
+    so a slow module never delays the values of the other modules.
+    Devices are compared without "http://", "/" at the end and the default port 80,
+    so an element with the address of the connect activity module uses its timer.
+    Every module sends button, switch and slider data over UDP if it is selected for its IP address
+*/
+
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+import android.content.Context;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView.Element;
+import de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView.ElementListAdapter;
+
+public class WiFiDevices {
+
+    //Context of MainActivity
+    private final Context context;
+    //Used by timers to update elements
+    private final ElementListAdapter adapter;
+    //Elements in recycler view
+    private final ArrayList<Element> elements;
+    //IP address (+ port) of module selected in connect activity
+    private final String defaultIp;
+
+    //Timer for every device key of the elements (see getDeviceKey), "" for module of connect activity
+    private final HashMap<String, WiFiTimer> timers = new HashMap<>();
+    //IP addresses (without port) of modules that receive button, switch and slider data over UDP
+    private final HashSet<String> udpHosts = new HashSet<>();
+    //True between start and stop
+    private boolean started = false;
+    //Last visible positions, so timers of new devices know them
+    private int firstVisible = -1;
+    private int lastVisible = -1;
+
+    public WiFiDevices(Context context, ElementListAdapter adapter, ArrayList<Element> elements, String defaultIp) {
+        this.context = context;
+        this.adapter = adapter;
+        this.elements = elements;
+        this.defaultIp = defaultIp;
+        getTimer("");
+        updateDevices();
+    }
+
+    /**
+     * Returns timer for wifi module of element
+     * @param element
+     * @return
+     */
+    public WiFiTimer getTimer(Element element) {
+        return getTimer(getDeviceKey(element.getDevice(), defaultIp));
+    }
+
+    /**
+     * Returns key of device for timers and read layouts
+     * The same module entered in another way (e.g. with "http://" or ":80") has the same key,
+     * the module of connect activity has key ""
+     * @param device device of element (see Element.getDevice())
+     * @param defaultIp IP address (+ port) of module of connect activity, null if unknown
+     * @return
+     */
+    public static String getDeviceKey(String device, String defaultIp) {
+        String key = normalize(device);
+        if (key.isEmpty() || (defaultIp != null && key.equals(normalize(defaultIp)))) return "";
+        return key;
+    }
+
+    /**
+     * Returns address without "http://", "/" at the end and default port
+     * @param address
+     * @return
+     */
+    private static String normalize(String address) {
+        String a = address == null ? "" : address.trim().toLowerCase(Locale.ROOT);
+        if (a.startsWith("http://")) a = a.substring(7);
+        while (a.endsWith("/")) a = a.substring(0, a.length() - 1);
+        if (a.endsWith(":80") && a.indexOf(':') == a.length() - 3) a = a.substring(0, a.length() - 3);
+        return a;
+    }
+
+    /**
+     * Returns IP address of address without port and path
+     * @param address
+     * @return
+     */
+    static String getHost(String address) {
+        String host = normalize(address);
+        int slash = host.indexOf('/');
+        if (slash >= 0) host = host.substring(0, slash);
+        int colon = host.lastIndexOf(':');
+        if (colon >= 0 && host.indexOf(':') == colon) host = host.substring(0, colon);
+        return host;
+    }
+
+    /**
+     * Returns timer for device key, created with the first call
+     * @param device
+     * @return
+     */
+    private WiFiTimer getTimer(String device) {
+        WiFiTimer timer = timers.get(device);
+        if (timer == null) {
+            String ip = device.isEmpty() ? defaultIp : device;
+            WiFiConnection wifi = new WiFiConnection(context, elements, device, defaultIp);
+            timer = new WiFiTimer(context, adapter, wifi, ip, Element.DEFAULT_POLL_INTERVAL);
+            wifi.setListener(timer);
+            wifi.setReadListener(timer);
+            if (!device.isEmpty()) timer.setDeviceName(ip);
+            timer.setVisiblePositions(firstVisible, lastVisible);
+            if (udpHosts.contains(getHost(ip))) wifi.setUdpTransport(ip, true);
+            timers.put(device, timer);
+            if (started) timer.startWiFiConnection();
+        }
+        return timer;
+    }
+
+    /**
+     * Returns object that handles requests to wifi module of element
+     * @param element
+     * @return
+     */
+    public WiFiConnection getConnection(Element element) {
+        return getTimer(element).getConnection();
+    }
+
+    /**
+     * Returns IP address (+ port) of wifi module of element
+     * @param element
+     * @return
+     */
+    public String getIpAddress(Element element) {
+        return getTimer(element).getIpAddress();
+    }
+
+    /**
+     * Sends button, switch and slider data over UDP to the modules with these IP addresses
+     * Other modules use http
+     * @param hosts IP addresses without port (saved in Transport.txt by connect activity)
+     */
+    public void setUdpTransport(Set<String> hosts) {
+        udpHosts.clear();
+        for (String host : hosts) udpHosts.add(getHost(host));
+        for (WiFiTimer timer : timers.values()) {
+            timer.getConnection().setUdpTransport(timer.getIpAddress(),
+                    udpHosts.contains(getHost(timer.getIpAddress())));
+        }
+    }
+
+    /**
+     * Starts polling of all wifi modules
+     */
+    public void start() {
+        started = true;
+        for (WiFiTimer timer : timers.values()) timer.startWiFiConnection();
+    }
+
+    /**
+     * Stops polling of all wifi modules
+     */
+    public void stop() {
+        started = false;
+        for (WiFiTimer timer : timers.values()) timer.stopWiFiConnection();
+    }
+
+    /**
+     * Sets positions of first and last visible element for all wifi modules, -1 if unknown
+     * @param first
+     * @param last
+     */
+    public void setVisiblePositions(int first, int last) {
+        firstVisible = first;
+        lastVisible = last;
+        for (WiFiTimer timer : timers.values()) timer.setVisiblePositions(first, last);
+    }
+
+    /**
+     * Has to be called when elements are added, removed or moved
+     * Creates timers for new devices, stops timers of devices without elements
+     * and updates the layouts of all connections
+     */
+    public void onElementsChanged() {
+        updateDevices();
+        for (WiFiTimer timer : timers.values()) timer.getConnection().onElementsChanged();
+    }
+
+    /**
+     * Creates timers for new devices and removes timers of devices without elements
+     * The timer of the module of connect activity is never removed
+     */
+    private void updateDevices() {
+        HashSet<String> used = new HashSet<>();
+        for (Element e : elements) used.add(getDeviceKey(e.getDevice(), defaultIp));
+        for (String device : used) getTimer(device);
+        Iterator<Map.Entry<String, WiFiTimer>> iterator = timers.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, WiFiTimer> entry = iterator.next();
+            if (entry.getKey().isEmpty() || used.contains(entry.getKey())) continue;
+            entry.getValue().stopWiFiConnection();
+            iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+    Name: WiFiNetworkState
+    Rev: 1.0
+    Creator: Leon Beier
+    Date: 18.10.2026
+    Copyright (c) 2026 Protop Solutions UG. All right reserved.
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy of
+    this java code and associated documentation files (the "Java Code"), to deal in the
+    Java Code without restriction, including without limitation the rights to use,
+    copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+    Java Code, and to permit persons to whom the Java Code is furnished to do so,
+    subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Java Code.
+
+    THE Java Code IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+    FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+    COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+    AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+    WITH THE Java Code OR THE USE OR OTHER DEALINGS IN THE Java Code.
+
+
+    Description:
+    Caches if a network is connected. The state is changed by a NetworkCallback,
+    so polls and send requests don't ask the ConnectivityManager every time
+*/
+
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkInfo;
+import android.net.NetworkRequest;
+
+import java.util.HashSet;
+
+class WiFiNetworkState {
+
+    private final ConnectivityManager connectivityManager;
+    //Networks that are connected, changed by callback
+    private final HashSet<Network> networks = new HashSet<>();
+    //Cached state, only valid while the callback is registered
+    private volatile boolean connected = false;
+    //Callback while registered, else null
+    private volatile ConnectivityManager.NetworkCallback callback;
+    //Informed when connected changes
+    private OnConnectionChanged listener;
+
+    WiFiNetworkState(Context context) {
+        connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+    }
+
+    /**
+     * Registers callback, listener is called when the connection is lost or back
+     * @param listener Called on thread of ConnectivityManager
+     */
+    synchronized void start(OnConnectionChanged listener) {
+        this.listener = listener;
+        if (callback != null || connectivityManager == null) return;
+        connected = queryConnected();
+        callback = new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(Network network) {
+                update(network, true);
+            }
+
+            @Override
+            public void onLost(Network network) {
+                update(network, false);
+            }
+        };
+        try {
+            connectivityManager.registerNetworkCallback(new NetworkRequest.Builder().build(), callback);
+        } catch (RuntimeException e) {
+            //E.g. too many callbacks of this app, state is queried every time then
+            e.printStackTrace();
+            callback = null;
+        }
+    }
+
+    /**
+     * Unregisters callback
+     */
+    synchronized void stop() {
+        listener = null;
+        if (callback == null) return;
+        try {
+            connectivityManager.unregisterNetworkCallback(callback);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+        callback = null;
+        networks.clear();
+    }
+
+    /**
+     * Adds or removes network and informs listener if the state changed
+     * @param network
+     * @param available
+     */
+    private void update(Network network, boolean available) {
+        OnConnectionChanged l;
+        boolean now;
+        synchronized (this) {
+            if (available) networks.add(network);
+            else networks.remove(network);
+            //Networks that are connected at registration are added with onAvailable too
+            now = !networks.isEmpty();
+            if (now == connected) return;
+            connected = now;
+            l = listener;
+        }
+        if (l != null) l.OnConnectionChanged(now);
+    }
+
+    /**
+     * Returns true if a network is connected
+     * Returns cached state while the callback is registered
+     * @return
+     */
+    boolean isConnected() {
+        if (callback != null) return connected;
+        return queryConnected();
+    }
+
+    /**
+     * Returns true if there is a network that is connected
+     * @return
+     */
+    private boolean queryConnected() {
+        if (connectivityManager == null) return false;
+        NetworkInfo activeNetworkInfo = connectivityManager.getActiveNetworkInfo();
+        return activeNetworkInfo != null && activeNetworkInfo.isConnected();
+    }
+
+    /**
+     * Returns true if state changes are sent with callback
+     * @return
+     */
+    boolean isObserved() {
+        return callback != null;
+    }
+}
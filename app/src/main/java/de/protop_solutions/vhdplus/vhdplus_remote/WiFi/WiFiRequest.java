@@ -24,32 +24,24 @@
 
     Description:
     This code allows to do a request to the WiFi module.
+    It is run in background by the WiFiScheduler of the module.
     The OnTaskCompleted callback return the response and if an error occurred
 */
 
 package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
 
 import android.content.Context;
-import android.content.Intent;
-import android.os.AsyncTask;
-import android.util.Log;
+import android.os.Handler;
+import android.os.Looper;
 import android.widget.Toast;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.URL;
-import java.net.URLConnection;
+class WiFiRequest implements Runnable {
 
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
+    //Shows error messages on main thread
+    private static Handler mainHandler;
 
-class WiFiRequest extends AsyncTask<Void, Void, String> {
-
-    //Element type (e.g. "b" for button, "s" or "i") or "hooks" for request
-    private final String type;
-    //hook with value or hooks for request
-    private final String data;
-    //send (e.g. button) or read (e.g. led)
-    private final String task;
+    //Task with element type and data (e.g. "send?b=hook1" or "read?hooks=~l_hook1")
+    private final String path;
     //Defined IP of wifi module
     private final String ipAddress;
     //True for send task
@@ -58,69 +50,73 @@ class WiFiRequest extends AsyncTask<Void, Void, String> {
     private final Context context;
     //Callback
     private OnTaskCompleted listener;
-
-    //Message of Exception during execution
-    private String errorMsg;
+    //Buffer for response of read task, null if response is returned as String
+    private ResponseTokenizer response;
+    //Callback for response in buffer
+    private OnReadCompleted readListener;
 
     public WiFiRequest(Context context, String ipAddress, String task, String type, String data, boolean showError, OnTaskCompleted listener) {
         this.context = context;
         this.ipAddress = ipAddress;
-        this.task = task;
-        this.type = type;
-        this.data = data;
+        this.path = task + "?" + type + "=" + data;
         this.showError = showError;
         this.listener = listener;
     }
 
+    /**
+     * Request that reads response into reusable buffer instead of a String
+     * @param path prepared task with type and data (e.g. "read?hooks=~l_hook1")
+     */
+    public WiFiRequest(Context context, String ipAddress, String path, ResponseTokenizer response, OnReadCompleted readListener) {
+        this.context = context;
+        this.ipAddress = ipAddress;
+        this.path = path;
+        this.showError = false;
+        this.response = response;
+        this.readListener = readListener;
+    }
+
     /**
      * Communication with wifi module
-     * Builds url and requests response from wifi module
-     * return response
-     * @param voids
-     * @return
+     * Requests response from wifi module with the client of this ip address
+     * and calls callback with response in background
      */
     @Override
-    protected String doInBackground(Void... voids) {
+    public void run() {
+        String result = "";
+        String errorMsg = null;
         try {
-            //Request
-            String urlString = "http://" + ipAddress + "/" + task + "?" + type + "=" + data;
-            URL url = new URL(urlString);
-            URLConnection urlConnection = url.openConnection();
-            urlConnection.setReadTimeout(4000);
-            urlConnection.setConnectTimeout(4000);
-            urlConnection.setDoOutput(true);
-
-            //Response
-            BufferedReader bufferedReader =
-                    new BufferedReader(new InputStreamReader(urlConnection.getInputStream()));
-            String response = "";
-            for (String line; (line = bufferedReader.readLine()) != null;) response += line;
-            return response;
+            //Request over kept alive connection of this wifi module
+            WiFiClient client = WiFiClient.getClient(ipAddress);
+            if (response != null) client.request(path, response);
+            else result = client.request(path);
         } catch (Exception e) {
             errorMsg = e.getMessage();
             e.printStackTrace();
         }
-        return "";
-    }
 
-    /**
-     * Call callback with wifi module response
-     * @param result
-     */
-    @Override
-    protected void onPostExecute(String result) {
-        super.onPostExecute(result);
+        if (response != null) {
+            if (readListener != null)
+                readListener.OnReadCompleted(response, errorMsg != null || response.isEmpty());
+            return;
+        }
         if (errorMsg == null && result.trim().length() > 0) {
             listener.OnTaskCompleted(result, false);
         } else {
-            if (errorMsg != null) {
-                if (showError)
-                    Toast.makeText(context, "WiFi Error: " + errorMsg,
-                            Toast.LENGTH_LONG).show();
-            }
+            if (errorMsg != null && showError) showError(errorMsg);
             listener.OnTaskCompleted(result, true);
         }
     }
 
-
+    /**
+     * Shows error message on main thread
+     * @param errorMsg
+     */
+    private void showError(String errorMsg) {
+        synchronized (WiFiRequest.class) {
+            if (mainHandler == null) mainHandler = new Handler(Looper.getMainLooper());
+        }
+        mainHandler.post(() -> Toast.makeText(context, "WiFi Error: " + errorMsg,
+                Toast.LENGTH_LONG).show());
+    }
 }
@@ -0,0 +1,98 @@
+/*
+    Name: WiFiRtt
+    Rev: 1.0
+    Creator: Leon Beier
+    Date: 18.10.2026
+    Copyright (c) 2026 Protop Solutions UG. All right reserved.
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy of
+    this java code and associated documentation files (the "Java Code"), to deal in the
+    Java Code without restriction, including without limitation the rights to use,
+    copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+    Java Code, and to permit persons to whom the Java Code is furnished to do so,
+    subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Java Code.
+
+    THE Java Code IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+    FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+    COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+    AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+    WITH THE Java Code OR THE USE OR OTHER DEALINGS IN THE Java Code.
+
+
+    Description:
+    Estimates round trip time of requests to one wifi module like TCP does (RFC 6298).
+    The timeout is the smoothed round trip time plus 4 times its variance, so lost requests
+    are detected fast in the local network and slow mobile connections don't time out too early
+*/
+
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+class WiFiRtt {
+
+    //Timeout in ms before the first response
+    static final int INITIAL_TIMEOUT = 4000;
+    //Range of timeout in ms
+    static final int MIN_TIMEOUT = 500;
+    static final int MAX_TIMEOUT = 16000;
+
+    //Smoothed round trip time and its variance in ms, srtt < 0 before first sample
+    private double srtt = -1;
+    private double rttVariance = 0;
+    //Current timeout in ms
+    private int timeout = INITIAL_TIMEOUT;
+
+    /**
+     * Adds measured time of a request that was answered without retry
+     * @param rtt time in ms
+     */
+    synchronized void addSample(double rtt) {
+        if (srtt < 0) {
+            srtt = rtt;
+            rttVariance = rtt / 2;
+        } else {
+            rttVariance = 0.75 * rttVariance + 0.25 * Math.abs(srtt - rtt);
+            srtt = 0.875 * srtt + 0.125 * rtt;
+        }
+        timeout = clamp(Math.round(srtt + Math.max(10, 4 * rttVariance)));
+    }
+
+    /**
+     * Doubles timeout after a request timed out
+     * The next response sets the timeout from the estimate again
+     */
+    synchronized void onTimeout() {
+        timeout = clamp(2L * timeout);
+    }
+
+    private static int clamp(long value) {
+        return (int) Math.max(MIN_TIMEOUT, Math.min(MAX_TIMEOUT, value));
+    }
+
+    /**
+     * Returns timeout for connect and read in ms
+     * @return
+     */
+    synchronized int getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Returns smoothed round trip time in ms or -1 if no request was answered yet
+     * @return
+     */
+    synchronized int getRtt() {
+        return srtt < 0 ? -1 : (int) Math.round(srtt);
+    }
+
+    /**
+     * Returns variance of round trip time in ms
+     * @return
+     */
+    synchronized int getRttVariance() {
+        return (int) Math.round(rttVariance);
+    }
+}
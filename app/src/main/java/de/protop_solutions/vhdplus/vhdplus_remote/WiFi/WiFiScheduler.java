@@ -0,0 +1,182 @@
+/*
+    Name: WiFiScheduler
+    Rev: 1.0
+    Creator: Leon Beier
+    Date: 18.10.2026
+    Copyright (c) 2026 Protop Solutions UG. All right reserved.
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy of
+    this java code and associated documentation files (the "Java Code"), to deal in the
+    Java Code without restriction, including without limitation the rights to use,
+    copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+    Java Code, and to permit persons to whom the Java Code is furnished to do so,
+    subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Java Code.
+
+    THE Java Code IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+    FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+    COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+    AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+    WITH THE Java Code OR THE USE OR OTHER DEALINGS IN THE Java Code.
+
+
+    Description:
+    Runs the requests to one wifi module in background.
+    Send requests of the user have their own lane, so they never wait behind reads.
+    Only one read request runs at a time and a waiting read is replaced by a newer one.
+    The number of waiting send requests is limited, so a slow module can't build up a queue
+*/
+
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+import java.util.HashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class WiFiScheduler {
+
+    //Schedulers for every device address
+    private static final HashMap<String, WiFiScheduler> schedulers = new HashMap<>();
+
+    //Maximum number of send requests that wait for the running one
+    static final int MAX_WAITING_SENDS = 16;
+    //Threads stop after this time without requests
+    private static final long KEEP_ALIVE = 30;
+
+    //Send requests in order of user actions
+    private final ThreadPoolExecutor sendLane;
+    //Read requests, at most one at a time
+    private final ThreadPoolExecutor readLane;
+    //Read request that waits for the running one, null if none
+    private Runnable waitingRead;
+    //True while a read request is running
+    private boolean readRunning = false;
+
+    //Statistics
+    private int droppedReads = 0;
+    private int rejectedSends = 0;
+
+    /**
+     * Returns scheduler for ip address (with port)
+     * Creates new scheduler if there is no scheduler for this address
+     * @param ipAddress
+     * @return
+     */
+    public static synchronized WiFiScheduler getScheduler(String ipAddress) {
+        WiFiScheduler scheduler = schedulers.get(ipAddress);
+        if (scheduler == null) {
+            scheduler = new WiFiScheduler();
+            schedulers.put(ipAddress, scheduler);
+        }
+        return scheduler;
+    }
+
+    WiFiScheduler() {
+        sendLane = new ThreadPoolExecutor(1, 1, KEEP_ALIVE, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(MAX_WAITING_SENDS));
+        sendLane.allowCoreThreadTimeOut(true);
+        readLane = new ThreadPoolExecutor(1, 1, KEEP_ALIVE, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>());
+        readLane.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Runs send request after the send requests before
+     * Returns false if too many send requests are waiting, then the request is not sent
+     * @param request
+     * @return
+     */
+    public boolean send(Runnable request) {
+        try {
+            sendLane.execute(request);
+            return true;
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                rejectedSends++;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Runs read request when no other read request is running
+     * A read request that is still waiting is dropped, because the new one returns newer values
+     * The response buffer of a dropped request is not used again
+     * @param request
+     */
+    public synchronized void read(Runnable request) {
+        if (waitingRead != null) droppedReads++;
+        waitingRead = request;
+        if (!readRunning) {
+            readRunning = true;
+            readLane.execute(this::runReads);
+        }
+    }
+
+    /**
+     * Drops waiting read request, the running one is finished
+     */
+    public synchronized void cancelReads() {
+        waitingRead = null;
+    }
+
+    /**
+     * Returns true while a read request is running or waiting
+     * @return
+     */
+    public synchronized boolean isReading() {
+        return readRunning;
+    }
+
+    /**
+     * Runs read requests until no read request is waiting
+     */
+    private void runReads() {
+        while (true) {
+            Runnable request;
+            synchronized (this) {
+                request = waitingRead;
+                waitingRead = null;
+                if (request == null) {
+                    readRunning = false;
+                    return;
+                }
+            }
+            try {
+                request.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Returns number of read requests that were replaced by newer ones
+     * @return
+     */
+    public synchronized int getDroppedReads() {
+        return droppedReads;
+    }
+
+    /**
+     * Returns number of send requests that were not sent because too many were waiting
+     * @return
+     */
+    public synchronized int getRejectedSends() {
+        return rejectedSends;
+    }
+
+    /**
+     * Returns statistics for log
+     * @return
+     */
+    public synchronized String getStatistics() {
+        return droppedReads + " reads dropped, " + rejectedSends + " sends rejected";
+    }
+}
@@ -0,0 +1,321 @@
+/*
+    Name: WiFiSocket
+    Rev: 1.0
+    Creator: Leon Beier
+    Date: 18.10.2026
+    Copyright (c) 2026 Protop Solutions UG. All right reserved.
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy of
+    this java code and associated documentation files (the "Java Code"), to deal in the
+    Java Code without restriction, including without limitation the rights to use,
+    copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+    Java Code, and to permit persons to whom the Java Code is furnished to do so,
+    subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Java Code.
+
+    THE Java Code IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+    FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+    COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+    AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+    WITH THE Java Code OR THE USE OR OTHER DEALINGS IN THE Java Code.
+
+    Description:
+    WebSocket push channel to the wifi module.
+    The module pushes changed hook values and the app sends button, switch, slider
+    and console events over the same socket.
+    Received messages and the end of the connection are returned with the OnTaskCompleted
+    callback on the reader thread
+*/
+
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class WiFiSocket {
+
+    //Path of the push channel on the wifi module
+    static final String PATH = "/ws";
+    //Time between pings that keep the connection alive
+    private static final int PING_INTERVAL = 10000;
+    //Connection is closed if the module sends nothing for this time
+    private static final int READ_TIMEOUT = 3 * PING_INTERVAL;
+    private static final String ACCEPT_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    private static final int OPCODE_CONTINUATION = 0x0;
+    private static final int OPCODE_TEXT = 0x1;
+    private static final int OPCODE_CLOSE = 0x8;
+    private static final int OPCODE_PING = 0x9;
+    private static final int OPCODE_PONG = 0xA;
+
+    //Defined IP of wifi module
+    private final String ipAddress;
+    //Callback for messages and end of connection
+    private final OnTaskCompleted listener;
+    private final SecureRandom random = new SecureRandom();
+
+    private Socket socket;
+    private InputStream in;
+    private OutputStream out;
+    //Writes frames and pings, so the caller never blocks on the network
+    private ScheduledExecutorService writer;
+    private volatile boolean open = false;
+
+    public WiFiSocket(String ipAddress, OnTaskCompleted listener) {
+        this.ipAddress = ipAddress;
+        this.listener = listener;
+    }
+
+    /**
+     * Opens connection and starts reader thread
+     * Returns false if the module does not support the push channel
+     * Blocks until handshake is done, so don't call on main thread
+     * @param timeout connect and handshake timeout in ms
+     * @return
+     */
+    public boolean connect(int timeout) {
+        WiFiClient client = WiFiClient.getClient(ipAddress);
+        try {
+            socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(client.getHost(), client.getPort()), timeout);
+            socket.setSoTimeout(timeout);
+            in = new BufferedInputStream(socket.getInputStream());
+            out = socket.getOutputStream();
+
+            //Handshake
+            byte[] nonce = new byte[16];
+            random.nextBytes(nonce);
+            String key = base64(nonce);
+            String request = "GET " + client.getBasePath() + PATH + " HTTP/1.1\r\n" +
+                    "Host: " + client.getHostHeader() + "\r\n" +
+                    "Upgrade: websocket\r\n" +
+                    "Connection: Upgrade\r\n" +
+                    "Sec-WebSocket-Key: " + key + "\r\n" +
+                    "Sec-WebSocket-Version: 13\r\n\r\n";
+            out.write(request.getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            String status = readLine();
+            boolean accepted = status.startsWith("HTTP/1.1 101");
+            String expectedAccept = acceptKey(key);
+            boolean acceptValid = false;
+            for (String header; (header = readLine()).length() > 0; ) {
+                int colon = header.indexOf(':');
+                if (colon > 0 && header.substring(0, colon).trim().equalsIgnoreCase("Sec-WebSocket-Accept"))
+                    acceptValid = header.substring(colon + 1).trim().equals(expectedAccept);
+            }
+            if (!accepted || !acceptValid) {
+                closeSocket();
+                return false;
+            }
+            socket.setSoTimeout(READ_TIMEOUT);
+        } catch (IOException | NumberFormatException e) {
+            closeSocket();
+            return false;
+        }
+
+        open = true;
+        writer = Executors.newSingleThreadScheduledExecutor();
+        writer.scheduleWithFixedDelay(() -> writeFrame(OPCODE_PING, new byte[0]),
+                PING_INTERVAL, PING_INTERVAL, TimeUnit.MILLISECONDS);
+        Thread reader = new Thread(this::readFrames, "WiFiSocket " + ipAddress);
+        reader.setDaemon(true);
+        reader.start();
+        return true;
+    }
+
+    /**
+     * Returns true while the push channel is connected
+     * @return
+     */
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Sends text message to wifi module in background
+     * E.g. "b=hook1" for button or "hooks=~l_hook1~d_hook2" to subscribe to hooks
+     * @param message
+     */
+    public void send(String message) {
+        byte[] payload = message.getBytes(StandardCharsets.UTF_8);
+        try {
+            if (open) writer.execute(() -> writeFrame(OPCODE_TEXT, payload));
+        } catch (RejectedExecutionException ignored) { }
+    }
+
+    /**
+     * Closes connection without calling the callback
+     */
+    public void close() {
+        if (!open) return;
+        open = false;
+        try {
+            writer.execute(() -> {
+                writeFrame(OPCODE_CLOSE, new byte[0]);
+                closeSocket();
+            });
+            writer.shutdown();
+        } catch (RejectedExecutionException e) {
+            closeSocket();
+        }
+    }
+
+    /**
+     * Reads frames until the connection ends
+     * Text messages and the end of the connection are returned with the callback
+     */
+    private void readFrames() {
+        ByteArrayOutputStream message = new ByteArrayOutputStream();
+        try {
+            while (open) {
+                int b0 = readByte();
+                int b1 = readByte();
+                boolean fin = (b0 & 0x80) != 0;
+                int opcode = b0 & 0x0F;
+                long length = b1 & 0x7F;
+                if (length == 126) length = (readByte() << 8) | readByte();
+                else if (length == 127) {
+                    length = 0;
+                    for (int i = 0; i < 8; i++) length = (length << 8) | readByte();
+                }
+                if (length > Integer.MAX_VALUE) throw new IOException("Frame too large");
+                byte[] mask = null;
+                if ((b1 & 0x80) != 0) {
+                    mask = new byte[4];
+                    for (int i = 0; i < 4; i++) mask[i] = (byte) readByte();
+                }
+                byte[] payload = new byte[(int) length];
+                for (int read = 0; read < payload.length; ) {
+                    int n = in.read(payload, read, payload.length - read);
+                    if (n < 0) throw new EOFException("Connection closed");
+                    read += n;
+                }
+                if (mask != null) for (int i = 0; i < payload.length; i++) payload[i] ^= mask[i % 4];
+
+                switch (opcode) {
+                    case OPCODE_TEXT:
+                    case OPCODE_CONTINUATION:
+                        message.write(payload, 0, payload.length);
+                        if (fin) {
+                            String text = message.toString("UTF-8");
+                            message.reset();
+                            listener.OnTaskCompleted(text, false);
+                        }
+                        break;
+                    case OPCODE_PING:
+                        writer.execute(() -> writeFrame(OPCODE_PONG, payload));
+                        break;
+                    case OPCODE_CLOSE:
+                        throw new EOFException("Closed by wifi module");
+                }
+            }
+        } catch (IOException | RejectedExecutionException e) {
+            if (open) {
+                open = false;
+                writer.shutdownNow();
+                closeSocket();
+                listener.OnTaskCompleted("", true);
+            }
+        }
+    }
+
+    /**
+     * Writes masked frame
+     * Only called by writer thread
+     * @param opcode
+     * @param payload
+     */
+    private void writeFrame(int opcode, byte[] payload) {
+        try {
+            int length = payload.length;
+            int header = length < 126 ? 2 : length <= 0xFFFF ? 4 : 10;
+            byte[] frame = new byte[header + 4 + length];
+            frame[0] = (byte) (0x80 | opcode);
+            if (length < 126) frame[1] = (byte) (0x80 | length);
+            else if (length <= 0xFFFF) {
+                frame[1] = (byte) (0x80 | 126);
+                frame[2] = (byte) (length >> 8);
+                frame[3] = (byte) length;
+            } else {
+                frame[1] = (byte) (0x80 | 127);
+                for (int i = 0; i < 8; i++) frame[2 + i] = (byte) ((long) length >> (56 - 8 * i));
+            }
+            byte[] mask = new byte[4];
+            random.nextBytes(mask);
+            System.arraycopy(mask, 0, frame, header, 4);
+            for (int i = 0; i < length; i++) frame[header + 4 + i] = (byte) (payload[i] ^ mask[i % 4]);
+            out.write(frame);
+            out.flush();
+        } catch (IOException e) {
+            //Reader thread notices closed connection
+            closeSocket();
+        }
+    }
+
+    private int readByte() throws IOException {
+        int b = in.read();
+        if (b < 0) throw new EOFException("Connection closed");
+        return b;
+    }
+
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = readByte()) != '\n') if (b != '\r') line.append((char) b);
+        return line.toString();
+    }
+
+    private void closeSocket() {
+        try {
+            if (socket != null) socket.close();
+        } catch (IOException ignored) { }
+    }
+
+    /**
+     * Returns expected Sec-WebSocket-Accept value for key
+     * @param key
+     * @return
+     */
+    static String acceptKey(String key) {
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            return base64(sha1.digest((key + ACCEPT_GUID).getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String base64(byte[] data) {
+        final String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        StringBuilder sb = new StringBuilder((data.length + 2) / 3 * 4);
+        for (int i = 0; i < data.length; i += 3) {
+            int b = (data[i] & 0xFF) << 16;
+            if (i + 1 < data.length) b |= (data[i + 1] & 0xFF) << 8;
+            if (i + 2 < data.length) b |= data[i + 2] & 0xFF;
+            sb.append(chars.charAt((b >> 18) & 0x3F));
+            sb.append(chars.charAt((b >> 12) & 0x3F));
+            sb.append(i + 1 < data.length ? chars.charAt((b >> 6) & 0x3F) : '=');
+            sb.append(i + 2 < data.length ? chars.charAt(b & 0x3F) : '=');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,148 @@
+/*
+    Name: WiFiStream
+    Rev: 1.0
+    Creator: Leon Beier
+    Date: 18.10.2026
+    Copyright (c) 2026 Protop Solutions UG. All right reserved.
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy of
+    this java code and associated documentation files (the "Java Code"), to deal in the
+    Java Code without restriction, including without limitation the rights to use,
+    copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+    Java Code, and to permit persons to whom the Java Code is furnished to do so,
+    subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Java Code.
+
+    THE Java Code IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+    FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+    COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+    AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+    WITH THE Java Code OR THE USE OR OTHER DEALINGS IN THE Java Code.
+
+
+    Description:
+    Sends the values of an element that changes continuously (e.g. slider while dragged).
+    Values are sent with a maximum rate and only the latest value is sent.
+    At most one request is running at a time and the final value is always sent
+*/
+
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView.Element;
+
+public class WiFiStream {
+
+    //Object that handles requests to WiFi module
+    private WiFiConnection wifi;
+    //Type of data (e.g. "i" for slider)
+    private final String type;
+    //Delays next value on main thread
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    //Defined IP of wifi module
+    private String ipAddress;
+    //Minimum time between two values in ms, 0 if only the final value is sent
+    private int interval = 1000 / Element.DEFAULT_SLIDER_RATE;
+    //Latest value that is not sent yet (hook ~ value), null if none
+    private String pending;
+    //True while request of last value is running
+    private boolean running = false;
+    //Time last value was sent
+    private long lastSendTime = 0;
+
+    private final Runnable sendPending = this::sendPending;
+    private final Runnable sendCompleted = this::onSendCompleted;
+    //Called in background when request finished
+    private final OnTaskCompleted completed = (response, error) -> handler.post(sendCompleted);
+
+    public WiFiStream(WiFiConnection wifi, String ipAddress, String type) {
+        this.wifi = wifi;
+        this.ipAddress = ipAddress;
+        this.type = type;
+    }
+
+    /**
+     * Sets wifi module for next values (e.g. view holder is bound to element of other module)
+     * @param wifi
+     * @param ipAddress
+     */
+    public void setTarget(WiFiConnection wifi, String ipAddress) {
+        this.wifi = wifi;
+        this.ipAddress = ipAddress;
+    }
+
+    /**
+     * Sets maximum number of values per second
+     * 0 to only send the final value
+     * @param rate
+     */
+    public void setRate(int rate) {
+        interval = rate > 0 ? Math.max(1, 1000 / rate) : 0;
+    }
+
+    /**
+     * Returns true if values are sent while they change
+     * @return
+     */
+    public boolean isLive() {
+        return interval > 0;
+    }
+
+    /**
+     * Sends value while it changes, replaces value that is not sent yet
+     * Has to be called on main thread
+     * @param data hook ~ value
+     */
+    public void update(String data) {
+        if (!isLive()) return;
+        pending = data;
+        schedule();
+    }
+
+    /**
+     * Sends final value after the running request, replaces value that is not sent yet
+     * Has to be called on main thread
+     * @param data hook ~ value
+     */
+    public void finish(String data) {
+        pending = data;
+        schedule();
+    }
+
+    /**
+     * Sends pending value now or after the minimum time between two values
+     */
+    private void schedule() {
+        if (running || pending == null) return;
+        handler.removeCallbacks(sendPending);
+        long wait = lastSendTime + interval - SystemClock.uptimeMillis();
+        if (wait > 0) handler.postDelayed(sendPending, wait);
+        else sendPending();
+    }
+
+    private void sendPending() {
+        if (running || pending == null) return;
+        String data = pending;
+        pending = null;
+        running = true;
+        lastSendTime = SystemClock.uptimeMillis();
+        if (!wifi.sendData(ipAddress, type, data, completed)) {
+            //Too many requests waiting, try again later unless a newer value was set
+            running = false;
+            if (pending == null) pending = data;
+            handler.postDelayed(sendPending, Math.max(interval, 100));
+        }
+    }
+
+    private void onSendCompleted() {
+        running = false;
+        schedule();
+    }
+}
@@ -23,7 +23,9 @@
     WITH THE Java Code OR THE USE OR OTHER DEALINGS IN THE Java Code.
 
     Description:
-    This code implements a timer that updates the elements with values from the wifi module
+    This code implements a timer that updates the elements with values from the wifi module.
+    After errors the delay grows exponentially with jitter and is reset when the module answers.
+    Responses are parsed in background and only changed values are posted to the main thread
 */
 
 package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
@@ -33,19 +35,32 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
 import android.os.Handler;
+import android.os.SystemClock;
 import android.util.Log;
 import android.widget.Adapter;
 import android.widget.Toast;
 
 import java.util.ArrayList;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.Random;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 import de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView.Element;
 import de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView.ElementListAdapter;
 
-public class WiFiTimer implements OnTaskCompleted {
+public class WiFiTimer implements OnTaskCompleted, OnReadCompleted, OnConnectionChanged {
+
+    //Maximum delay after errors is MAX_DELAY_FACTOR * default delay
+    static final int MAX_DELAY_FACTOR = 10;
+    //Errors with growing delay until the "No Response" message is shown
+    static final int RETRY_BUDGET = 4;
+
+    //Timer thread for all WiFiTimers, delays are changed without creating new threads
+    private static final ScheduledThreadPoolExecutor pollExecutor = createPollExecutor();
 
     //Context of MainActivity
     private Context context;
@@ -56,196 +71,540 @@ public class WiFiTimer implements OnTaskCompleted {
     private WiFiConnection wifi;
     //Defined IP of wifi module
     private String ip;
+    //Name of wifi module in messages, null for module of connect activity
+    private String deviceName = null;
 
-    //Timer to update elements
-    Timer timer;
-    //Task that requests element data
-    TimerTask timerTask;
-    //Used for timer task
+    //Next poll, null while stopped or values are pushed
+    private ScheduledFuture<?> poll;
+    //Posts poll to main thread when the delay is over
+    private final Runnable pollTask;
+    //Delay of next poll after errors
+    private final WiFiBackoff backoff;
+    //Used for poll task
     final Handler handler = new Handler();
+    //Buffer for responses of send requests and messages of push channel, only used by worker
+    private final ResponseTokenizer messageResponse = new ResponseTokenizer();
+    //Parses responses and compares them with the last known values in background
+    private final ThreadPoolExecutor worker;
+    //Posted to main thread after a response was handled
+    private final Runnable receiveError = this::handleReceiveError;
+    private final Runnable receiveSuccess = this::handleReceiveSuccess;
 
-    //Time after task is executed when connection is present
+    //Delay after errors grows from this time, also used without network callback
     int defaultDelayLength;
-    //Time after task is executed
-    int delayLength;
+
+    //Round trip time and poll statistics that were shown last and when, so they are shown at most once per second
+    private int shownRtt = -1;
+    private int shownChanged = -1;
+    private int shownSaved = -1;
+    private long rttShownTime = 0;
 
     //Used to check if connection problem changed
     boolean noResponse;
     boolean noInternet;
 
+    //True between start and stop
+    private boolean started = false;
+    //False after the wifi module did not accept the push channel
+    private boolean pushSupported = true;
+    //True while connecting push channel
+    private boolean pushConnecting = false;
+    //True if values are pushed by wifi module instead of polling
+    private volatile boolean pushActive = false;
+
     public WiFiTimer(Context context, ElementListAdapter adapter, WiFiConnection wifi, String ip, int delayLength){
         this.context = context;
         this.adapter = adapter;
         this.wifi = wifi;
-        this.delayLength = delayLength;
         this.defaultDelayLength = delayLength;
         this.ip = ip;
+        backoff = new WiFiBackoff(delayLength, MAX_DELAY_FACTOR * delayLength, RETRY_BUDGET, new Random());
+        pollTask = () -> handler.post(this::poll);
 
         noResponse = false;
         noInternet = false;
+
+        //One thread, so responses are handled in order, stops when no response arrives
+        worker = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        worker.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Sets name of wifi module for messages
+     * Only the timer of the module of connect activity (name null) shows network messages and round trip time
+     * @param deviceName
+     */
+    public void setDeviceName(String deviceName){
+        this.deviceName = deviceName;
+    }
+
+    /**
+     * Returns object that handles requests to wifi module of this timer
+     * @return
+     */
+    public WiFiConnection getConnection(){
+        return wifi;
+    }
+
+    /**
+     * Returns IP address (+ port) of wifi module of this timer
+     * @return
+     */
+    public String getIpAddress(){
+        return ip;
+    }
+
+    /**
+     * Returns timer thread for polls, the thread keeps running while the app is open
+     * @return
+     */
+    private static ScheduledThreadPoolExecutor createPollExecutor(){
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "WiFiTimer");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
     }
 
     /**
      * Starts timer and receiver for response
+     * Requests data at once and tries to open push channel, timer is used until it is connected
      */
     public void startWiFiConnection(){
-        if (timer == null) {
-            timer = new Timer();
-            initializeTimerTask();
-            timer.schedule(timerTask, delayLength, delayLength);
+        if (started) return;
+        started = true;
+        wifi.startNetworkCallback(this);
+        if (!pushActive) {
+            retryNow();
+            if (pushSupported && !pushConnecting) startPushChannel();
         }
     }
 
+    /**
+     * Sets positions of first and last visible element, -1 if unknown
+     * Requests data at once if elements became visible, unless the module doesn't respond
+     * @param first
+     * @param last
+     */
+    public void setVisiblePositions(int first, int last){
+        if (wifi.setVisiblePositions(first, last) && started && !pushActive && !noInternet &&
+                backoff.getErrors() == 0 && wifi.checkConnection())
+            wifi.requestData(ip);
+    }
+
+    /**
+     * Called after the user sent data with element, so its stable hooks are read with their own interval again
+     * The next poll is moved forward if it is later than the new interval
+     * @param element
+     */
+    public void onUserInput(Element element){
+        wifi.onUserInput(element);
+        if (poll != null && backoff.getErrors() == 0 &&
+                poll.getDelay(TimeUnit.MILLISECONDS) > wifi.getPollInterval())
+            schedulePoll(wifi.getPollInterval());
+    }
+
+    /**
+     * Resets delay after errors and requests data at once
+     * E.g. when the connection is back
+     */
+    public void retryNow(){
+        backoff.onSuccess();
+        schedulePoll(0);
+    }
+
+    /**
+     * Replaces next poll with a poll after delay
+     * Not used while stopped or values are pushed
+     * @param delay
+     */
+    private void schedulePoll(int delay){
+        cancelPoll();
+        if (!started || pushActive) return;
+        poll = pollExecutor.schedule(pollTask, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cancels next poll
+     */
+    private void cancelPoll(){
+        if (poll != null) {
+            poll.cancel(false);
+            poll = null;
+        }
+    }
+
+    /**
+     * Connects push channel in background
+     * Stops polling if connected, else polling stays active
+     */
+    private void startPushChannel(){
+        pushConnecting = true;
+        new Thread(() -> {
+            boolean connected = wifi.openPushChannel(ip, (response, error) -> {
+                if (error) handler.post(() -> pushHandler(true, response));
+                else if (pushActive) OnTaskCompleted(response, false);
+            });
+            handler.post(() -> {
+                pushConnecting = false;
+                if (!connected) {
+                    pushSupported = false;
+                } else if (!started) {
+                    wifi.closePushChannel();
+                } else {
+                    pushActive = true;
+                    cancelPoll();
+                    wifi.subscribeHooks();
+                }
+            });
+        }).start();
+    }
+
+    /**
+     * Handles end of push channel
+     * Falls back to polling at once if push channel is closed
+     * @param error
+     * @param response
+     */
+    private void pushHandler(boolean error, String response){
+        if (!pushActive || !error) return;
+        pushActive = false;
+        wifi.closePushChannel();
+        if (started) retryNow();
+    }
+
+    /**
+     * Called in background when the network connection is lost or back
+     * @param connected
+     */
+    @Override
+    public void OnConnectionChanged(boolean connected) {
+        handler.post(() -> connectionChanged(connected));
+    }
+
+    /**
+     * Suspends polling while there is no network and polls at once when it is back
+     * @param connected
+     */
+    private void connectionChanged(boolean connected){
+        if (!started) return;
+        if (connected) {
+            if (noInternet) showNetworkMessage("Connected With Internet!");
+            noInternet = false;
+            retryNow();
+        } else {
+            if (!noInternet) showNetworkMessage("No Internet Connection!");
+            noInternet = true;
+            cancelPoll();
+        }
+    }
+
+    /**
+     * Handles response of send request or message of push channel on worker thread
+     * @param response
+     * @param error
+     */
     @Override
     public void OnTaskCompleted(String response, boolean error) {
-        responseHandler(error, response);
+        worker.execute(() -> {
+            messageResponse.set(response);
+            responseHandler(error, messageResponse);
+        });
+    }
+
+    /**
+     * Handles response of read request in background
+     * The buffer is used again after the response was handled
+     * @param response
+     * @param error
+     */
+    @Override
+    public void OnReadCompleted(ResponseTokenizer response, boolean error) {
+        worker.execute(() -> {
+            responseHandler(error, response);
+            wifi.recycleResponse(response);
+        });
     }
 
     /**
      * Stops timer and receiver for response
+     * Drops waiting read request, closes open connections and logs how often connections were reused
      */
     public void stopWiFiConnection(){
-        if (timer != null) {
-            timer.cancel();
-            timer = null;
+        started = false;
+        cancelPoll();
+        wifi.stopNetworkCallback();
+        if (pushActive) {
+            pushActive = false;
+            wifi.closePushChannel();
         }
+        WiFiScheduler scheduler = WiFiScheduler.getScheduler(ip);
+        scheduler.cancelReads();
+        WiFiClient client = WiFiClient.getClient(ip);
+        Log.d("WiFiClient", client.getStatistics() + ", " + scheduler.getStatistics());
+        Log.d("ReadSelector", wifi.getPollStatistics());
+        String udpStatistics = wifi.getUdpStatistics();
+        if (udpStatistics != null) Log.d("WiFiDatagram", udpStatistics);
+        client.closeIdleConnections();
     }
 
     /**
-     * Restarts timer with new delayLength
+     * Requests data from wifi module on main thread and schedules next poll
+     * Polls with the interval of the fastest element, hooks of slower elements are only requested when due
+     * Without internet polling is suspended until the network callback reports the connection
+     * If there is no network callback, the connection is checked with default delay
+     * The first request after the connection is back is sent without backoff
      */
-    public void updateDelayLength(){
-        if (timer != null) {
-            timer.cancel();
-            timer = null;
-        }
-        timer = new Timer();
-        initializeTimerTask();
-        timer.schedule(timerTask, delayLength, delayLength);
-    }
-
-    /**
-     * Initializes task that requests for data from wifi module
-     */
-    public void initializeTimerTask() {
-        timerTask = new TimerTask() {
-            public void run() {
-                handler.post(new Runnable() {
-                    public void run() {
-                        if (WiFiConnection.listHasReceivingElement(adapter.getElements())) {
-                            if (wifi.checkConnection()) {
-                                if (noInternet)
-                                    Toast.makeText(context, "Connected With Internet!",
-                                            Toast.LENGTH_LONG).show();
-                                noInternet = false;
-                                wifi.requestData(ip);
-                            } else if (!noInternet) {
-                                Toast.makeText(context, "No Internet Connection!",
-                                        Toast.LENGTH_LONG).show();
-                                noInternet = true;
-                            }
-                        }
-                    }
-                });
+    private void poll(){
+        if (!started || pushActive) return;
+        int delay = backoff.getErrors() == 0 ? wifi.getPollInterval() : backoff.getDelay();
+        if (wifi.hasReceivingElement()) {
+            if (wifi.checkConnection()) {
+                if (noInternet) {
+                    showNetworkMessage("Connected With Internet!");
+                    backoff.onSuccess();
+                    delay = wifi.getPollInterval();
+                }
+                noInternet = false;
+                wifi.requestData(ip);
+            } else {
+                if (!noInternet) showNetworkMessage("No Internet Connection!");
+                noInternet = true;
+                if (wifi.isConnectionObserved()) return;
+                delay = defaultDelayLength;
             }
-        };
+        }
+        schedulePoll(delay);
     }
 
     /**
-     * Increases delay length after connection error
-     * Displays error message after 4 errors
+     * Delays next poll exponentially with jitter after connection error
+     * Displays error message after the retry budget is used up
      */
     void handleReceiveError(){
-        if (delayLength < 10*defaultDelayLength){
-            delayLength += defaultDelayLength;
-            updateDelayLength();
-        }
+        schedulePoll(backoff.onError());
 
-        if (delayLength == 4*defaultDelayLength){
-            Toast.makeText(context, "No Response From WiFi Module!", Toast.LENGTH_LONG).show();
+        if (backoff.isJustExhausted()){
+            Toast.makeText(context, "No Response From " + getModuleName() + "!", Toast.LENGTH_LONG).show();
             noResponse = true;
         }
     }
 
     /**
-     * Handles response message and updates elements
+     * Called on main thread after a response was received
+     * Resets delay and shows message if module didn't respond before
+     */
+    private void handleReceiveSuccess(){
+        if(noResponse)
+            Toast.makeText(context, getModuleName() + " Connected!", Toast.LENGTH_LONG).show();
+
+        noResponse = false;
+
+        if (backoff.onSuccess()) schedulePoll(wifi.getPollInterval());
+        showRtt();
+    }
+
+    /**
+     * Shows message about network connection
+     * Every timer observes the network, so the message is only shown by one timer
+     * @param message
+     */
+    private void showNetworkMessage(String message){
+        if (deviceName == null) Toast.makeText(context, message, Toast.LENGTH_LONG).show();
+    }
+
+    /**
+     * Returns name of wifi module for messages
+     * @return
+     */
+    private String getModuleName(){
+        return deviceName == null ? "WiFi Module" : "WiFi Module " + deviceName;
+    }
+
+    /**
+     * Sends round trip time of requests and poll statistics to MainActivity if they changed
+     * Only for the module of connect activity
+     */
+    private void showRtt(){
+        if (deviceName != null) return;
+        long now = SystemClock.uptimeMillis();
+        if (now - rttShownTime < 1000) return;
+        WiFiClient client = WiFiClient.getClient(ip);
+        int rtt = client.getRtt();
+        int changed = wifi.getChangedPercent();
+        int saved = wifi.getSavedPercent();
+        if (rtt == shownRtt && changed == shownChanged && saved == shownSaved) return;
+        shownRtt = rtt;
+        shownChanged = changed;
+        shownSaved = saved;
+        rttShownTime = now;
+        Intent intent = new Intent("rtt");
+        intent.putExtra("rtt", rtt);
+        intent.putExtra("timeout", client.getTimeout());
+        intent.putExtra("changed", changed);
+        intent.putExtra("saved", saved);
+        LocalBroadcastManager.getInstance(context).sendBroadcast(intent);
+    }
+
+    /**
+     * Handles response message in background and posts changed values to main thread
+     * Values are compared in the response buffer, so only changed values create Strings
      * @param error
      * @param response
      */
-    private void responseHandler(boolean error, String response){
-        if (error || response == "") {
-            handleReceiveError();
+    private void responseHandler(boolean error, ResponseTokenizer response){
+        if (error || response.isEmpty()) {
+            handler.post(receiveError);
+            return;
+        }
+        handler.post(receiveSuccess);
+
+        ValueChanges changes = null;
+        response.rewind();
+        if (response.next()) {
+            if (response.tokenContains('R')) {
+                wifi.setFullRead(response);
+                changes = diffValues(response);
+            }
+            else if (response.tokenContains('D')) {
+                //Only values that changed since the sequence number of the request
+                if (response.next()) {
+                    long sequence = response.tokenLong(-1);
+                    if (sequence >= 0) wifi.setReadSequence(response, sequence);
+                }
+                changes = diffHookValues(response);
+            }
+            else if (response.tokenContains('V')) {
+                changes = diffHookValues(response);
+            }
+            else if (response.tokenContains('C') && response.next()){
+                String value = response.tokenString();
+                handler.post(() -> applyConsoleResponse(value));
+            }
+        }
+        if (changes != null) {
+            ValueChanges c = changes;
+            handler.post(() -> applyChanges(c));
         }
-        else{
-            if(noResponse)
-                Toast.makeText(context, "WiFi Module Connected!", Toast.LENGTH_LONG).show();
+    }
 
-            noResponse = false;
+    /**
+     * Compares values in order of the hooks in the read request with last known values
+     * E.g. R~1~#FF0000~text
+     * Response is ignored if elements changed after the request
+     * Returns changed values or null
+     * @param response response after first value
+     * @return
+     */
+    private ValueChanges diffValues(ResponseTokenizer response){
+        ReadLayout layout = wifi.getReadLayout();
+        if (response.layout != layout || response.query == null) return null;
+        ValueChanges changes = null;
+        int[] slots = response.query.slots;
+        for (int i = 0; i < slots.length && response.next(); i++) {
+            changes = diffValue(layout, slots[i], response, changes);
+        }
+        return changes;
+    }
 
-            if (delayLength > defaultDelayLength){
-                delayLength = defaultDelayLength;
-                updateDelayLength();
+    /**
+     * Compares values that are listed with their hook with last known values
+     * E.g. V~l_hook1~1~d_hook3~text or D~42~l_hook1~1
+     * Elements are found with the hook index, so only changed elements are touched
+     * Returns changed values or null
+     * @param response response before first hook
+     * @return
+     */
+    private ValueChanges diffHookValues(ResponseTokenizer response){
+        ReadLayout layout = wifi.getReadLayout();
+        ValueChanges changes = null;
+        while (response.next()) {
+            int slot = layout.find(response);
+            //Value
+            if (!response.next()) break;
+            for (; slot >= 0; slot = layout.nextWithSameKey(slot)) {
+                changes = diffValue(layout, slot, response, changes);
             }
+        }
+        return changes;
+    }
 
-            String[] r = response.split("~");
-            if (r.length > 0) {
-                if (r[0].contains("R")) {
-                    int i = 1;
-                    ArrayList<String> v;
-                    for (Element e : adapter.getElements()) {
-                        if (i >= r.length) {
-                            break;
-                        }
-                        switch (e.getType()) {
-                            case Element.TYPE_LED:
-                            case Element.TYPE_RGBLED:
-                            case Element.TYPE_DISPLAY:
-                            case Element.TYPE_CONSOLE:
-                                v = e.getValues();
-                                if (v == null || v.size() == 0 || !v.get(0).equals(r[i])) {
-                                    if (v.size() > 0) v.set(0, r[i]);
-                                    else v.add(r[i]);
-                                    e.setValues(v);
-                                    adapter.notifyItemChanged(adapter.getElements().indexOf(e));
-                                }
-                                i++;
-                                break;
-                            case Element.TYPE_LED10:
-                            case Element.TYPE_RGBLED10:
-                                v = e.getValues();
-                                boolean update = false;
-                                if (v == null) v = new ArrayList<>();
-                                for (int j = 0; j < 10; j++) {
-                                    if (i >= r.length)
-                                        break;
-                                    if (v.size() > j) {
-                                        if (update == false && !v.get(j).equals(r[i]))
-                                            update = true;
-                                        v.set(j, r[i]);
-                                    } else {
-                                        v.add(r[i]);
-                                        update = true;
-                                    }
-                                    i++;
-                                }
-                                e.setValues(v);
-                                adapter.notifyItemChanged(adapter.getElements().indexOf(e));
-                                break;
-                        }
-                    }
-                }
-                else if (r[0].contains("C")){
-                    Element e = adapter.getElements().get(adapter.getLastConsolePosition());
-                    ArrayList<String> v = e.getValues();
-                    if (v == null || v.size() == 0 || !v.get(0).equals(r[1])) {
-                        v = new ArrayList<>();
-                        v.add(r[1]);
-                        v.add("");
-                        e.setValues(v);
-                        adapter.notifyItemChanged(adapter.getElements().indexOf(e));
-                    }
-                }
+    /**
+     * Adds current value of response to changes if it is not the last known value of slot
+     * Returns changes, created with the first changed value
+     * @param layout
+     * @param slot
+     * @param response
+     * @param changes
+     * @return
+     */
+    private static ValueChanges diffValue(ReadLayout layout, int slot, ResponseTokenizer response, ValueChanges changes){
+        if (response.tokenEquals(layout.values[slot])) return changes;
+        String value = response.tokenString();
+        layout.values[slot] = value;
+        if (changes == null) changes = new ValueChanges(layout);
+        changes.add(slot, value);
+        return changes;
+    }
+
+    /**
+     * Sets changed values on main thread and updates only the changed elements
+     * If the elements were moved since the response, the element is searched in the element list
+     * Restored values are not stale anymore and new values are saved for the next start
+     * @param changes
+     */
+    private void applyChanges(ValueChanges changes){
+        wifi.onValuesChanged(changes);
+        ReadLayout layout = changes.layout;
+        boolean layoutChanged = layout != wifi.getReadLayout();
+        int updatePosition = -1;
+        for (int i = 0; i < changes.size; i++) {
+            int slot = changes.slots[i];
+            Element e = layout.elements[slot];
+            setValue(e, layout.indexes[slot], changes.values[i]);
+            e.setStale(false);
+            adapter.saveValue(e, layout.indexes[slot], changes.values[i]);
+            int position = layoutChanged ? adapter.getElements().indexOf(e) : layout.positions[slot];
+            if (position >= 0 && position != updatePosition) {
+                adapter.notifyValuesChanged(position);
+                updatePosition = position;
             }
         }
     }
+
+    /**
+     * Shows response of wifi module in console where user pressed send button
+     * @param value
+     */
+    private void applyConsoleResponse(String value){
+        int position = adapter.getLastConsolePosition();
+        if (position >= adapter.getElements().size()) return;
+        Element e = adapter.getElements().get(position);
+        ArrayList<String> v = e.getValues();
+        if (v == null || v.size() == 0 || !value.equals(v.get(0))) {
+            v = new ArrayList<>();
+            v.add(value);
+            v.add("");
+            e.setValues(v);
+            adapter.notifyValuesChanged(position);
+        }
+    }
+
+    /**
+     * Sets value of element at index
+     * @param e
+     * @param index
+     * @param value
+     */
+    private static void setValue(Element e, int index, String value){
+        ArrayList<String> v = e.getValues();
+        if (v == null) {
+            v = new ArrayList<>();
+            e.setValues(v);
+        }
+        while (v.size() <= index) v.add("");
+        v.set(index, value);
+    }
 }
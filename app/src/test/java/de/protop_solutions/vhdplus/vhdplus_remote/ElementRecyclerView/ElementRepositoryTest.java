@@ -0,0 +1,107 @@
+package de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView;
+
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Set;
+
+import static de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView.TestElements.element;
+import static org.junit.Assert.*;
+
+public class ElementRepositoryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void usedHooks_followElementList() {
+        ArrayList<Element> elements = new ArrayList<>();
+        elements.add(element(Element.TYPE_LED, "1"));
+        elements.add(element(Element.TYPE_BUTTON, "1"));
+        ElementRepository repository = new ElementRepository(LayoutCodec.FILE_NAME, elements);
+
+        //LED and 10 LEDs share hooks, buttons have their own
+        Set<String> ledHooks = repository.getUsedHooks(Element.TYPE_LED10);
+        assertEquals(1, ledHooks.size());
+        assertTrue(ledHooks.contains("1"));
+
+        repository.add(2, element(Element.TYPE_LED10, "1", "2", "3"));
+        assertEquals(3, ledHooks.size());
+        repository.swap(0, 2);
+        assertSame(elements, repository.getElements());
+        assertEquals(Element.TYPE_LED10, elements.get(0).getType());
+
+        //Hook 1 is still used by the LED
+        repository.remove(0);
+        assertEquals(1, ledHooks.size());
+        assertTrue(ledHooks.contains("1"));
+        repository.remove(1);
+        assertTrue(ledHooks.isEmpty());
+        assertTrue(repository.getUsedHooks(Element.TYPE_BUTTON3).contains("1"));
+    }
+
+    @Test
+    public void read_keepsLayoutThatCantBeRead() throws IOException {
+        File dir = folder.getRoot();
+        ArrayList<Element> elements = new ArrayList<>();
+        elements.add(element(Element.TYPE_LED, "1"));
+        elements.add(element(Element.TYPE_BUTTON, "2"));
+        LayoutCodec.save(dir, LayoutCodec.FILE_NAME, elements);
+        ElementRepository repository = ElementRepository.read(dir, LayoutCodec.FILE_NAME);
+        assertFalse(repository.isLoadFailed());
+        assertEquals(2, repository.getElements().size());
+
+        //Truncated file, e.g. after the storage was full
+        File file = new File(dir, LayoutCodec.FILE_NAME);
+        byte[] data = Files.readAllBytes(file.toPath());
+        byte[] truncated = Arrays.copyOf(data, data.length - 3);
+        Files.write(file.toPath(), truncated);
+        repository = ElementRepository.read(dir, LayoutCodec.FILE_NAME);
+        assertTrue(repository.isLoadFailed());
+        assertTrue(repository.getElements().isEmpty());
+        assertArrayEquals(truncated, Files.readAllBytes(file.toPath()));
+    }
+
+    /**
+     * The add activity looks up the used hooks in the repository instead of decoding the layout file
+     * Measures both with 10 to 10k elements, only run manually because it depends on wall clock time
+     */
+    @Ignore("Benchmark")
+    @Test
+    public void usedHooks_isFasterThanDecodingLayout() throws IOException {
+        for (int count : new int[]{10, 1000, 10000}) {
+            ArrayList<Element> elements = new ArrayList<>();
+            for (int i = 0; i < count; i++) elements.add(element(i % Element.TYPE_CONSOLE + 1, "" + i));
+            byte[] file = LayoutCodec.encode(elements);
+            ElementRepository repository = new ElementRepository(LayoutCodec.FILE_NAME, elements);
+            int rounds = Math.max(3, 20000 / count);
+            long decode = 0;
+            long lookUp = 0;
+            for (int warmup = 0; warmup < 2; warmup++) {
+                long start = System.nanoTime();
+                for (int r = 0; r < rounds; r++) {
+                    ArrayList<ArrayList<String>> usedHooks = new ArrayList<>();
+                    for (int i = 0; i < Element.TYPE_CONSOLE; i++) usedHooks.add(new ArrayList<>());
+                    for (Element e : LayoutCodec.decode(file)) {
+                        usedHooks.get(Element.getBaseType(e.getType(), false) - 1).addAll(e.getHooks());
+                    }
+                    assertTrue(usedHooks.get(Element.TYPE_LED - 1).contains("2"));
+                }
+                decode = (System.nanoTime() - start) / rounds;
+                start = System.nanoTime();
+                for (int r = 0; r < rounds; r++) {
+                    assertTrue(repository.getUsedHooks(Element.TYPE_LED).contains("2"));
+                }
+                lookUp = (System.nanoTime() - start) / rounds;
+            }
+            if (count == 10000) assertTrue("look up " + lookUp + " ns, decode " + decode + " ns", lookUp * 10 < decode);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView;
+
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView.TestElements.element;
+import static org.junit.Assert.*;
+
+public class LayoutCodecTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Element named(int type, String... hooks) {
+        Element e = element(type, hooks);
+        ArrayList<String> names = new ArrayList<>();
+        for (String h : hooks) names.add("Name " + h);
+        e.setNames(names);
+        return e;
+    }
+
+    private static void assertSameElements(List<Element> expected, List<Element> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Element a = expected.get(i);
+            Element b = actual.get(i);
+            assertEquals(a.getType(), b.getType());
+            assertEquals(a.getOwnPollInterval(), b.getOwnPollInterval());
+            assertEquals(a.getDevice(), b.getDevice());
+            assertEquals(a.getHooks(), b.getHooks());
+            assertEquals(a.getNames(), b.getNames());
+            assertEquals(a.getValues(), b.getValues());
+            assertEquals(a.getSliderRate(), b.getSliderRate());
+        }
+    }
+
+    private static ArrayList<Element> layout(int count) {
+        ArrayList<Element> elements = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int type = i % Element.TYPE_CONSOLE + 1;
+            Element e = type == Element.TYPE_SLIDER ? named(type, "" + i) : named(type, "" + i, "" + (i + 1));
+            if (type == Element.TYPE_SLIDER && i % 2 == 0) e.setSliderRate(i % 3 == 0 ? 0 : 25);
+            if (i % 4 == 0) e.setPollInterval(1000);
+            if (i % 5 == 0) e.setDevice("192.168.4." + (i % 200));
+            if (i % 3 == 0) e.setValues(new ArrayList<>(Arrays.asList("#FF0000", "Grüße " + i)));
+            elements.add(e);
+        }
+        return elements;
+    }
+
+    @Test
+    public void decode_returnsEncodedElements() throws IOException {
+        ArrayList<Element> elements = layout(30);
+        elements.get(1).setValues(null);
+        assertSameElements(elements, LayoutCodec.decode(LayoutCodec.encode(elements)));
+        assertEquals(0, LayoutCodec.decode(LayoutCodec.encode(new ArrayList<>())).size());
+    }
+
+    @Test
+    public void load_importsLayoutTxtOnce() throws Exception {
+        File dir = folder.getRoot();
+        assertEquals(0, LayoutCodec.load(dir, LayoutCodec.FILE_NAME).size());
+
+        ArrayList<Element> elements = layout(5);
+        ObjectOutputStream out = new ObjectOutputStream(
+                new FileOutputStream(new File(dir, LayoutCodec.LEGACY_FILE_NAME)));
+        out.writeInt(elements.size());
+        for (Element e : elements) out.writeObject(e);
+        out.close();
+
+        assertSameElements(elements, LayoutCodec.load(dir, LayoutCodec.FILE_NAME));
+        assertFalse(new File(dir, LayoutCodec.LEGACY_FILE_NAME).exists());
+        assertTrue(new File(dir, LayoutCodec.FILE_NAME).exists());
+        assertSameElements(elements, LayoutCodec.load(dir, LayoutCodec.FILE_NAME));
+    }
+
+    @Test
+    public void save_replacesLayoutWithCompleteFile() throws IOException {
+        File dir = folder.getRoot();
+        LayoutCodec.save(dir, LayoutCodec.FILE_NAME, layout(3));
+        //Temp file of a write that was interrupted doesn't change the layout
+        FileOutputStream partial = new FileOutputStream(new File(dir, LayoutCodec.FILE_NAME + LayoutCodec.TEMP_SUFFIX));
+        partial.write(Arrays.copyOf(LayoutCodec.encode(layout(8)), 30));
+        partial.close();
+        assertSameElements(layout(3), LayoutCodec.load(dir, LayoutCodec.FILE_NAME));
+
+        LayoutCodec.save(dir, LayoutCodec.FILE_NAME, layout(8));
+        assertFalse(new File(dir, LayoutCodec.FILE_NAME + LayoutCodec.TEMP_SUFFIX).exists());
+        assertSameElements(layout(8), LayoutCodec.load(dir, LayoutCodec.FILE_NAME));
+    }
+
+    @Test
+    public void decode_skipsNewFieldsAndRejectsNewerVersions() throws IOException {
+        ArrayList<Element> elements = layout(2);
+        byte[] data = LayoutCodec.encode(elements);
+
+        //Magic, version and count, then one byte with the length of the first record (varints are zigzag)
+        int length = data[6] / 2;
+        int end = 7 + length;
+        //First record with one more field (varint 7) at the end from a newer app
+        byte[] newer = new byte[data.length + 1];
+        System.arraycopy(data, 0, newer, 0, end);
+        newer[6] = (byte) ((length + 1) * 2);
+        newer[end] = 14;
+        System.arraycopy(data, end, newer, end + 1, data.length - end);
+        assertSameElements(elements, LayoutCodec.decode(newer));
+
+        data[4] = (byte) ((LayoutCodec.VERSION + 1) * 2);
+        try {
+            LayoutCodec.decode(data);
+            fail();
+        } catch (IOException expected) { }
+        try {
+            LayoutCodec.decode(Arrays.copyOf(LayoutCodec.encode(elements), 20));
+            fail();
+        } catch (IOException expected) { }
+    }
+
+    /**
+     * Saves and loads layouts in a temp dir like Layout.txt of older app versions and like Layout.bin
+     * Wall clock times depend on the machine, so the benchmark is only run manually
+     */
+    @Ignore("Benchmark")
+    @Test
+    public void saveAndLoad_isFasterAndSmallerThanSerialization() throws Exception {
+        File dir = folder.getRoot();
+        for (int count : new int[]{10, 1000, 10000}) {
+            ArrayList<Element> elements = layout(count);
+            int rounds = Math.max(3, 2000 / count);
+            long[] serialized = null;
+            long[] codec = null;
+            for (int warmup = 0; warmup < 2; warmup++) {
+                File legacy = new File(dir, LayoutCodec.LEGACY_FILE_NAME);
+                serialized = measure(rounds, legacy, () -> {
+                    ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(legacy));
+                    out.writeInt(elements.size());
+                    for (Element e : elements) out.writeObject(e);
+                    out.close();
+                }, () -> {
+                    ObjectInputStream in = new ObjectInputStream(new FileInputStream(legacy));
+                    int n = in.readInt();
+                    for (int c = 0; c < n; c++) in.readObject();
+                    in.close();
+                });
+                legacy.delete();
+                codec = measure(rounds, new File(dir, LayoutCodec.FILE_NAME),
+                        () -> LayoutCodec.save(dir, LayoutCodec.FILE_NAME, elements),
+                        () -> LayoutCodec.load(dir, LayoutCodec.FILE_NAME));
+            }
+            String result = count + " elements: save " + codec[0] / 1000 + " us (serialization " + serialized[0] / 1000 +
+                    " us), load " + codec[1] / 1000 + " us (" + serialized[1] / 1000 + " us), size " +
+                    codec[2] + " bytes (" + serialized[2] + " bytes)";
+            assertTrue(result, codec[2] < serialized[2]);
+            if (count == 10000) {
+                assertTrue(result, codec[0] < serialized[0]);
+                assertTrue(result, codec[1] < serialized[1]);
+            }
+        }
+    }
+
+    private interface FileTask {
+        void run() throws Exception;
+    }
+
+    /**
+     * Returns average save time in ns, average load time in ns and file size
+     */
+    private static long[] measure(int rounds, File file, FileTask save, FileTask load) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) save.run();
+        long saveTime = (System.nanoTime() - start) / rounds;
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) load.run();
+        long loadTime = (System.nanoTime() - start) / rounds;
+        return new long[]{saveTime, loadTime, file.length()};
+    }
+}
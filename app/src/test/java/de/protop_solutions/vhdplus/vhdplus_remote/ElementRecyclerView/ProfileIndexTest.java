@@ -0,0 +1,72 @@
+package de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ProfileIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private void write(String name, String text) throws IOException {
+        FileOutputStream stream = new FileOutputStream(new File(folder.getRoot(), name));
+        stream.write(text.getBytes(StandardCharsets.UTF_8));
+        stream.close();
+    }
+
+    @Test
+    public void load_createsDefaultProfileFromOlderFiles() throws IOException {
+        write("IP.txt", "192.168.4.1\n");
+        write("Port.txt", "80");
+        ProfileIndex index = ProfileIndex.load(folder.getRoot());
+        assertEquals(1, index.size());
+        ProfileIndex.Profile profile = index.getSelected();
+        assertEquals(ProfileIndex.DEFAULT_NAME, profile.getName());
+        assertEquals(LayoutCodec.FILE_NAME, profile.getLayoutFile());
+        assertEquals("192.168.4.1", profile.getIp());
+        assertEquals("80", profile.getPort());
+    }
+
+    @Test
+    public void save_keepsProfilesAndSelection() throws IOException {
+        ProfileIndex index = ProfileIndex.load(folder.getRoot());
+        int robot = index.add("Robot\tArm");
+        index.select(robot);
+        index.getSelected().setIp("10.0.0.2");
+        int second = index.add("Robot Arm");
+        assertEquals("Robot Arm 2", index.get(second).getName());
+        assertEquals("10.0.0.2", index.get(second).getIp());
+        assertNotEquals(index.get(robot).getLayoutFile(), index.get(second).getLayoutFile());
+        index.save();
+
+        ProfileIndex loaded = ProfileIndex.load(folder.getRoot());
+        assertEquals(new ArrayList<>(Arrays.asList(ProfileIndex.DEFAULT_NAME, "Robot Arm", "Robot Arm 2")),
+                loaded.getNames());
+        assertEquals(robot, loaded.getSelectedIndex());
+        assertEquals("10.0.0.2", loaded.getSelected().getIp());
+        assertEquals(index.get(robot).getLayoutFile(), loaded.getSelected().getLayoutFile());
+        assertSame(loaded.get(second), loaded.getByLayoutFile(index.get(second).getLayoutFile()));
+    }
+
+    @Test
+    public void profiles_haveTheirOwnLayout() throws IOException {
+        File dir = folder.getRoot();
+        ProfileIndex index = ProfileIndex.load(dir);
+        String other = index.get(index.add("Other")).getLayoutFile();
+        Element e = new Element();
+        e.setType(Element.TYPE_LED);
+        LayoutCodec.save(dir, other, new ArrayList<>(Arrays.asList(e, e)));
+        assertEquals(0, LayoutCodec.load(dir, LayoutCodec.FILE_NAME).size());
+        assertEquals(2, LayoutCodec.load(dir, other).size());
+    }
+}
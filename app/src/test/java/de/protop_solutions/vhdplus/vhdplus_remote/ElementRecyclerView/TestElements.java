@@ -0,0 +1,29 @@
+package de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Elements for tests of the element list and the WiFi connection
+ */
+public class TestElements {
+
+    /**
+     * Returns element of type with hooks and without names and values
+     */
+    public static Element element(int type, String... hooks) {
+        Element e = new Element();
+        e.setType(type);
+        e.setHooks(new ArrayList<>(Arrays.asList(hooks)));
+        return e;
+    }
+
+    /**
+     * Returns element of type with own update interval in ms (0 for the default)
+     */
+    public static Element element(int type, int pollInterval, String... hooks) {
+        Element e = element(type, hooks);
+        e.setPollInterval(pollInterval);
+        return e;
+    }
+}
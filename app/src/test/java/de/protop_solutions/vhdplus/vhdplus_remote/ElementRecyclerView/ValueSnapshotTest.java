@@ -0,0 +1,129 @@
+package de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView.TestElements.element;
+import static org.junit.Assert.*;
+
+public class ValueSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static ValueSnapshot.Record record(Element e, int index, long time, String value) {
+        return new ValueSnapshot.Record(ValueSnapshot.key(e, index), time, value);
+    }
+
+    private File file() {
+        return new File(folder.getRoot(), LayoutCodec.FILE_NAME + ValueSnapshot.SUFFIX);
+    }
+
+    @Test
+    public void restore_setsLatestValuesAndMarksStale() throws IOException {
+        Element led = element(Element.TYPE_LED10, "a", "b");
+        Element display = element(Element.TYPE_DISPLAY, "d");
+        Element button = element(Element.TYPE_BUTTON, "a");
+        ValueSnapshot snapshot = new ValueSnapshot(file());
+        snapshot.append(Arrays.asList(record(led, 0, 1, "0"), record(led, 1, 1, "1")));
+        snapshot.append(Collections.singletonList(record(led, 0, 2, "1")));
+
+        ArrayList<Element> elements = new ArrayList<>(Arrays.asList(
+                element(Element.TYPE_LED, "a"), display, button));
+        new ValueSnapshot(file()).restore(elements);
+        assertEquals(Collections.singletonList("1"), elements.get(0).getValues());
+        assertTrue(elements.get(0).isStale());
+        assertFalse(display.isStale());
+        assertTrue(display.getValues().isEmpty());
+        assertFalse(button.isStale());
+    }
+
+    @Test
+    public void restore_ignoresIncompleteRecord() throws IOException {
+        Element led = element(Element.TYPE_LED, "a");
+        ValueSnapshot snapshot = new ValueSnapshot(file());
+        snapshot.append(Collections.singletonList(record(led, 0, 1, "0")));
+        snapshot.append(Collections.singletonList(record(led, 0, 2, "1")));
+        RandomAccessFile f = new RandomAccessFile(file(), "rw");
+        f.setLength(f.length() - 1);
+        f.close();
+
+        ArrayList<Element> elements = new ArrayList<>(Collections.singletonList(element(Element.TYPE_LED, "a")));
+        new ValueSnapshot(file()).restore(elements);
+        assertEquals(Collections.singletonList("0"), elements.get(0).getValues());
+    }
+
+    @Test
+    public void append_afterIncompleteRecordIsRestored() throws IOException {
+        Element led = element(Element.TYPE_LED, "a");
+        ValueSnapshot snapshot = new ValueSnapshot(file());
+        snapshot.append(Collections.singletonList(record(led, 0, 1, "0")));
+        snapshot.append(Collections.singletonList(record(led, 0, 2, "1")));
+        RandomAccessFile f = new RandomAccessFile(file(), "rw");
+        f.setLength(f.length() - 1);
+        f.close();
+
+        ValueSnapshot restarted = new ValueSnapshot(file());
+        restarted.restore(new ArrayList<>());
+        restarted.append(Collections.singletonList(record(led, 0, 3, "2")));
+
+        ArrayList<Element> elements = new ArrayList<>(Collections.singletonList(element(Element.TYPE_LED, "a")));
+        new ValueSnapshot(file()).restore(elements);
+        assertEquals(Collections.singletonList("2"), elements.get(0).getValues());
+    }
+
+    @Test
+    public void append_afterDamagedHeaderIsRestored() throws IOException {
+        Element led = element(Element.TYPE_LED, "a");
+        ValueSnapshot snapshot = new ValueSnapshot(file());
+        snapshot.append(Collections.singletonList(record(led, 0, 1, "0")));
+        RandomAccessFile f = new RandomAccessFile(file(), "rw");
+        f.write(0);
+        f.close();
+
+        ValueSnapshot restarted = new ValueSnapshot(file());
+        restarted.restore(new ArrayList<>());
+        restarted.append(Collections.singletonList(record(led, 0, 2, "1")));
+
+        ArrayList<Element> elements = new ArrayList<>(Collections.singletonList(element(Element.TYPE_LED, "a")));
+        new ValueSnapshot(file()).restore(elements);
+        assertEquals(Collections.singletonList("1"), elements.get(0).getValues());
+    }
+
+    @Test
+    public void restore_usesLastRecordIfClockWentBack() throws IOException {
+        Element led = element(Element.TYPE_LED, "a");
+        ValueSnapshot snapshot = new ValueSnapshot(file());
+        snapshot.append(Collections.singletonList(record(led, 0, 2000, "0")));
+        snapshot.append(Collections.singletonList(record(led, 0, 1000, "1")));
+
+        ArrayList<Element> elements = new ArrayList<>(Collections.singletonList(element(Element.TYPE_LED, "a")));
+        new ValueSnapshot(file()).restore(elements);
+        assertEquals(Collections.singletonList("1"), elements.get(0).getValues());
+    }
+
+    @Test
+    public void append_compactsOldValues() throws IOException {
+        Element led = element(Element.TYPE_LED, "a");
+        ValueSnapshot snapshot = new ValueSnapshot(file());
+        snapshot.restore(new ArrayList<>());
+        long size = 0;
+        for (int i = 0; i <= ValueSnapshot.COMPACT_MIN; i++) {
+            snapshot.append(Collections.singletonList(record(led, 0, i, String.valueOf(i))));
+            if (i == ValueSnapshot.COMPACT_MIN - 1) size = file().length();
+        }
+        assertTrue(file().length() < size / 100);
+
+        ArrayList<Element> elements = new ArrayList<>(Collections.singletonList(element(Element.TYPE_LED, "a")));
+        new ValueSnapshot(file()).restore(elements);
+        assertEquals(Collections.singletonList(String.valueOf(ValueSnapshot.COMPACT_MIN)), elements.get(0).getValues());
+    }
+}
@@ -0,0 +1,71 @@
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView.Element;
+
+import static de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView.TestElements.element;
+import static org.junit.Assert.*;
+
+public class ReadLayoutTest {
+
+    @Test
+    public void hooks_ofVisibleElementsArePartOfQuery() {
+        ArrayList<Element> elements = new ArrayList<>();
+        elements.add(element(Element.TYPE_LED, "1"));
+        elements.add(element(Element.TYPE_BUTTON, "2"));
+        elements.add(element(Element.TYPE_LED10, "3", "4"));
+        elements.add(element(Element.TYPE_DISPLAY, "5"));
+        ReadLayout layout = new ReadLayout(elements);
+        assertEquals("~l_1~l_3~l_4~d_5", layout.hooks);
+
+        //Button at position 1 has no values
+        assertEquals(1, layout.firstSlot(1));
+        assertEquals(1, layout.firstSlot(2));
+        assertEquals(3, layout.firstSlot(3));
+        assertEquals(4, layout.firstSlot(4));
+
+        assertEquals("~l_3~l_4", layout.hooks(layout.firstSlot(1), layout.firstSlot(3)));
+        assertEquals(layout.hooks, layout.hooks(0, layout.size()));
+        assertEquals("", layout.hooks(layout.firstSlot(1), layout.firstSlot(2)));
+    }
+
+    @Test
+    public void layoutOfDevice_onlyContainsElementsOfDevice() {
+        ArrayList<Element> elements = new ArrayList<>();
+        elements.add(element(Element.TYPE_LED, "1"));
+        Element other = element(Element.TYPE_DISPLAY, "2");
+        other.setDevice(" 192.168.4.2:60 ");
+        elements.add(other);
+        elements.add(element(Element.TYPE_DISPLAY, "3"));
+
+        ReadLayout layout = new ReadLayout(elements, "");
+        assertEquals("~l_1~d_3", layout.hooks);
+        ReadLayout otherLayout = new ReadLayout(elements, "192.168.4.2:60");
+        assertEquals("~d_2", otherLayout.hooks);
+        //Positions stay positions in the whole element list
+        assertEquals(1, otherLayout.positions[0]);
+        assertEquals(2, layout.positions[1]);
+        assertEquals("~l_1~d_2~d_3", new ReadLayout(elements).hooks);
+    }
+
+    @Test
+    public void layoutOfDefaultDevice_containsElementsWithDefaultIp() {
+        ArrayList<Element> elements = new ArrayList<>();
+        elements.add(element(Element.TYPE_LED, "1"));
+        Element same = element(Element.TYPE_DISPLAY, "2");
+        same.setDevice("http://192.168.4.1:80/");
+        elements.add(same);
+        Element other = element(Element.TYPE_DISPLAY, "3");
+        other.setDevice("192.168.4.2");
+        elements.add(other);
+
+        assertEquals("", WiFiDevices.getDeviceKey(same.getDevice(), "192.168.4.1"));
+        assertEquals("192.168.4.2", WiFiDevices.getDeviceKey(other.getDevice(), "192.168.4.1"));
+        assertEquals("~l_1~d_2", new ReadLayout(elements, "", "192.168.4.1").hooks);
+        assertEquals("~d_3", new ReadLayout(elements, "192.168.4.2", "192.168.4.1").hooks);
+        assertEquals("192.168.4.2", WiFiDevices.getHost("http://192.168.4.2:8080/"));
+    }
+}
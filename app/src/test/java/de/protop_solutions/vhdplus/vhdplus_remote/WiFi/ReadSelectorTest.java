@@ -0,0 +1,144 @@
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView.Element;
+
+import static de.protop_solutions.vhdplus.vhdplus_remote.ElementRecyclerView.TestElements.element;
+import static org.junit.Assert.*;
+
+public class ReadSelectorTest {
+
+    @Test
+    public void pollInterval_isRoundedDownToTier() {
+        Element e = new Element();
+        assertEquals(Element.DEFAULT_POLL_INTERVAL, e.getPollInterval());
+        e.setPollInterval(60);
+        assertEquals(50, e.getPollInterval());
+        e.setPollInterval(10);
+        assertEquals(50, e.getPollInterval());
+        e.setPollInterval(7000);
+        assertEquals(5000, e.getPollInterval());
+        e.setPollInterval(0);
+        assertEquals(Element.DEFAULT_POLL_INTERVAL, e.getPollInterval());
+    }
+
+    @Test
+    public void next_requestsOnlyTiersThatAreDue() {
+        ArrayList<Element> elements = new ArrayList<>();
+        elements.add(element(Element.TYPE_LED, 50, "1"));
+        elements.add(element(Element.TYPE_DISPLAY, 5000, "2"));
+        elements.add(element(Element.TYPE_LED, 0, "3"));
+        ReadLayout layout = new ReadLayout(elements);
+        assertEquals(50, layout.getPollInterval());
+
+        ReadSelector selector = new ReadSelector();
+        assertEquals("~l_1~d_2~l_3", selector.next(layout, 0).hooks);
+        assertEquals("~l_1", selector.next(layout, 50).hooks);
+        assertEquals("~l_1", selector.next(layout, 100).hooks);
+        long t = 100;
+        for (; t < 500; t += 50) selector.next(layout, t);
+        assertEquals("~l_1~l_3", selector.next(layout, 500).hooks);
+        for (t = 550; t < 5000; t += 50) selector.next(layout, t);
+        assertEquals("~l_1~d_2~l_3", selector.next(layout, 5000).hooks);
+
+        //Same hooks use the same query, so the sequence number is kept
+        ReadQuery fast = selector.next(layout, 5050);
+        fast.sequence = 7;
+        assertSame(fast, selector.next(layout, 5100));
+        assertTrue(fast.getPath(true).endsWith("&seq=7"));
+        //Modules without delta responses get no seq
+        assertEquals("read?hooks=~l_1", fast.getPath(false));
+    }
+
+    @Test
+    public void next_readsElementsThatAreNotVisibleLessOften() {
+        ArrayList<Element> elements = new ArrayList<>();
+        for (int i = 0; i < 20; i++) elements.add(element(Element.TYPE_LED, 0, "" + i));
+        ReadLayout layout = new ReadLayout(elements);
+        ReadSelector selector = new ReadSelector();
+        assertTrue(selector.setVisiblePositions(0, 1));
+
+        //First read of tier contains all elements
+        assertEquals(20, selector.next(layout, 0).slots.length);
+        for (int i = 1; i < ReadSelector.FULL_READ_INTERVAL; i++) {
+            assertEquals("~l_0~l_1", selector.next(layout, i * 500).hooks);
+        }
+        assertEquals(20, selector.next(layout, ReadSelector.FULL_READ_INTERVAL * 500).slots.length);
+
+        //Elements that scroll into view are read at once with sequence number 0
+        ReadQuery window = selector.next(layout, 5500);
+        window.sequence = 3;
+        assertTrue(selector.setVisiblePositions(5, 7));
+        ReadQuery scrolled = selector.next(layout, 5600);
+        assertEquals("~l_5~l_6~l_7", scrolled.hooks);
+        assertEquals(0, scrolled.sequence);
+        assertNull(selector.next(layout, 5700));
+        assertFalse(selector.setVisiblePositions(5, 6));
+    }
+
+    @Test
+    public void stableHooks_areReadSlowerUntilTheyChange() {
+        ArrayList<Element> elements = new ArrayList<>();
+        elements.add(element(Element.TYPE_LED, 0, "1"));
+        elements.add(element(Element.TYPE_DISPLAY, 0, "2"));
+        ReadLayout layout = new ReadLayout(elements);
+        ReadSelector selector = new ReadSelector();
+
+        //Both hooks stable for STABLE_TIME, display keeps changing
+        long t = 0;
+        for (; t < ReadSelector.STABLE_TIME; t += 500) {
+            ReadQuery query = selector.next(layout, t);
+            assertEquals("~l_1~d_2", query.hooks);
+            query.sequence = t;
+            selector.onValueChanged(layout, 1, t);
+        }
+        t += ReadSelector.RETUNE_INTERVAL;
+        //New queries continue with the sequence number of the last response
+        ReadQuery query = selector.next(layout, t);
+        assertEquals("~l_1~d_2", query.hooks);
+        assertEquals(ReadSelector.STABLE_TIME - 500, query.sequence);
+        query = selector.next(layout, t + 500);
+        assertEquals("~d_2", query.hooks);
+        assertEquals(ReadSelector.STABLE_TIME - 500, query.sequence);
+        assertEquals(500, selector.getPollInterval(layout));
+        t += 500;
+
+        //LED is read with the next slower tier (1000 ms) and the same query is used
+        int ledReads = 0;
+        for (long end = t + 10000; t < end; t += 500) {
+            ReadQuery q = selector.next(layout, t + 500);
+            if (q != null && q.hooks.contains("l_1")) ledReads++;
+            selector.onValueChanged(layout, 1, t + 500);
+        }
+        assertTrue("LED read " + ledReads + " times", ledReads >= 9 && ledReads <= 11);
+
+        //Changed value snaps back to own tier at the next poll
+        selector.onValueChanged(layout, 0, t);
+        t += 500;
+        assertEquals("~l_1~d_2", selector.next(layout, t).hooks);
+
+        //User input with the display snaps back only the display
+        for (long end = t + ReadSelector.STABLE_TIME * 4; t < end; t += 500) selector.next(layout, t);
+        assertTrue(selector.getPollInterval(layout) > 500);
+        selector.onUserInput(elements.get(1), t);
+        assertEquals(500, selector.getPollInterval(layout));
+        ledReads = 0;
+        int displayReads = 0;
+        for (long end = t + 2000; t < end; t += 500) {
+            ReadQuery q = selector.next(layout, t + 500);
+            if (q != null && q.hooks.contains("l_1")) ledReads++;
+            if (q != null && q.hooks.contains("d_2")) displayReads++;
+        }
+        assertEquals(4, displayReads);
+        assertTrue("LED read " + ledReads + " times", ledReads <= 1);
+
+        String statistics = selector.getStatistics();
+        assertTrue(statistics, statistics.contains("reads saved for stable hooks"));
+        assertFalse(statistics, statistics.contains(" 0 reads saved"));
+        assertTrue(statistics, selector.getSavedPercent() > 0);
+        assertTrue(statistics, statistics.contains("(" + selector.getChangedPercent() + "%)"));
+    }
+}
@@ -0,0 +1,118 @@
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class ResponseTokenizerTest {
+
+    @Test
+    public void next_returnsValuesLikeSplit() {
+        ResponseTokenizer t = new ResponseTokenizer();
+        for (String response : new String[]{"R~1~~#FF0000~text~", "R", "", "C~a b~~", "D~42"}) {
+            t.set(response);
+            ArrayList<String> tokens = new ArrayList<>();
+            while (t.next()) tokens.add(t.tokenString());
+            String[] expected = response.split("~");
+            assertArrayEquals(response, expected, tokens.toArray());
+        }
+    }
+
+    @Test
+    public void tokenEquals_comparesUtf8WithoutDecoding() {
+        ResponseTokenizer t = new ResponseTokenizer();
+        t.set("R~Grüße 😀~l_hook1~42");
+        t.next();
+        assertTrue(t.tokenContains('R'));
+        t.next();
+        assertTrue(t.tokenEquals("Grüße 😀"));
+        assertFalse(t.tokenEquals("Grüße"));
+        assertFalse(t.tokenEquals("Grüße 😀!"));
+        assertEquals("Grüße 😀".hashCode(), t.tokenHash());
+        t.next();
+        assertTrue(t.tokenIsHook("l", "hook1"));
+        assertFalse(t.tokenIsHook("d", "hook1"));
+        assertFalse(t.tokenIsHook("l", "hook"));
+        t.next();
+        assertEquals(42, t.tokenLong(-1));
+    }
+
+    @Test
+    public void tokenEquals_keepsStringsOfUnchangedValues() {
+        ArrayList<String> values = new ArrayList<>();
+        for (String v : new String[]{"1", "#FF0000", "Temp 21"}) values.add(new String(v));
+        ArrayList<String> old = new ArrayList<>(values);
+        byte[] body = "R~1~#00FF00~Temp 21\r\n".getBytes(StandardCharsets.UTF_8);
+        ResponseTokenizer t = new ResponseTokenizer();
+        t.read(body, 0, body.length);
+        t.next();
+        for (int i = 0; t.next(); i++)
+            if (!t.tokenEquals(values.get(i))) values.set(i, t.tokenString());
+        //Only the changed value is a new String
+        assertSame(old.get(0), values.get(0));
+        assertEquals("#00FF00", values.get(1));
+        assertSame(old.get(2), values.get(2));
+    }
+
+    /**
+     * Time per poll for a response with 50 unchanged values, read with split("~") and String.equals
+     * like older app versions and with the tokenizer
+     * Only run manually, the times depend on the machine
+     */
+    @Ignore("Benchmark")
+    @Test
+    public void tokenEquals_isFasterThanSplit() throws IOException {
+        StringBuilder sb = new StringBuilder("R");
+        ArrayList<String> values = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            String v = i % 3 == 0 ? "#FF00" + (10 + i) : i % 3 == 1 ? "1" : "Temp " + i;
+            values.add(v);
+            sb.append('~').append(v);
+        }
+        byte[] body = (sb + "\r\n").getBytes(StandardCharsets.UTF_8);
+        ResponseTokenizer t = new ResponseTokenizer();
+
+        int polls = 20000;
+        long split = 0;
+        long tokenizer = 0;
+        for (int round = 0; round < 3; round++) {
+            split = measure(polls, () -> {
+                BufferedReader bufferedReader = new BufferedReader(
+                        new InputStreamReader(new ByteArrayInputStream(body)));
+                String response = "";
+                for (String line; (line = bufferedReader.readLine()) != null;) response += line;
+                String[] r = response.split("~");
+                for (int i = 1; i < r.length; i++)
+                    if (!values.get(i - 1).equals(r[i])) values.set(i - 1, r[i]);
+            });
+            tokenizer = measure(polls, () -> {
+                t.read(body, 0, body.length);
+                t.next();
+                for (int i = 0; t.next(); i++)
+                    if (!t.tokenEquals(values.get(i))) values.set(i, t.tokenString());
+            });
+        }
+        assertTrue("tokenizer " + tokenizer + " ns, split " + split + " ns", tokenizer < split);
+    }
+
+    private interface Poll {
+        void run() throws IOException;
+    }
+
+    /**
+     * Returns average time of a poll in ns
+     */
+    private static long measure(int polls, Poll poll) throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < polls; i++) poll.run();
+        return (System.nanoTime() - start) / polls;
+    }
+}
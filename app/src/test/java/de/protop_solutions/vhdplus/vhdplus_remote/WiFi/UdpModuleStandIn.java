@@ -0,0 +1,92 @@
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Local stand-in for the UDP transport of the VHDPlus WiFi extension
+ * Accepts datagrams like "session~seq~b=hook" and drops them if seq is not newer
+ * than the last accepted seq of the session
+ */
+class UdpModuleStandIn implements Closeable {
+
+    /**
+     * Accepted command with time of arrival
+     */
+    static class Command {
+        final String data;
+        final long receivedNanos;
+
+        Command(String data, long receivedNanos) {
+            this.data = data;
+            this.receivedNanos = receivedNanos;
+        }
+    }
+
+    private final DatagramSocket socket;
+    //Last accepted sequence number of every session
+    private final HashMap<String, Long> sequences = new HashMap<>();
+
+    //Accepted commands in order of arrival (e.g. "b=hook1")
+    final LinkedBlockingQueue<Command> received = new LinkedBlockingQueue<>();
+    //Number of datagrams that were dropped because they were late or invalid
+    volatile int dropped = 0;
+
+    UdpModuleStandIn() throws IOException {
+        socket = new DatagramSocket(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        Thread receiveThread = new Thread(() -> {
+            byte[] buffer = new byte[1500];
+            try {
+                while (true) {
+                    DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                    socket.receive(packet);
+                    long now = System.nanoTime();
+                    handle(new String(packet.getData(), 0, packet.getLength(), StandardCharsets.UTF_8), now);
+                }
+            } catch (IOException ignored) { }
+        });
+        receiveThread.setDaemon(true);
+        receiveThread.start();
+    }
+
+    /**
+     * Returns address like it is entered in the connect activity
+     */
+    String getAddress() {
+        return "127.0.0.1:" + socket.getLocalPort();
+    }
+
+    private void handle(String message, long now) {
+        String[] parts = message.split("~", 3);
+        if (parts.length < 3) {
+            dropped++;
+            return;
+        }
+        long seq;
+        try {
+            seq = Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            dropped++;
+            return;
+        }
+        Long last = sequences.get(parts[0]);
+        if (last != null && seq <= last) {
+            dropped++;
+            return;
+        }
+        sequences.put(parts[0], seq);
+        received.add(new Command(parts[2], now));
+    }
+
+    @Override
+    public void close() {
+        socket.close();
+    }
+}
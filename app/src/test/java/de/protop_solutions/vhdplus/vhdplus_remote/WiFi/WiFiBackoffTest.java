@@ -0,0 +1,63 @@
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class WiFiBackoffTest {
+
+    @Test
+    public void delay_doublesWithJitterUpToMaximum() {
+        WiFiBackoff backoff = new WiFiBackoff(500, 5000, 4, new Random(1));
+        assertEquals(500, backoff.getDelay());
+        int[] full = {1000, 2000, 4000, 5000, 5000, 5000};
+        for (int max : full) {
+            int delay = backoff.onError();
+            assertTrue(delay + " > " + max, delay <= max);
+            assertTrue(delay + " < " + max / 2, delay >= max / 2);
+        }
+    }
+
+    @Test
+    public void budget_isExhaustedOnceAfterRetryBudgetErrors() {
+        WiFiBackoff backoff = new WiFiBackoff(500, 5000, 4, new Random(1));
+        for (int i = 0; i < 3; i++) {
+            backoff.onError();
+            assertFalse(backoff.isExhausted());
+        }
+        backoff.onError();
+        assertTrue(backoff.isJustExhausted());
+        backoff.onError();
+        assertTrue(backoff.isExhausted());
+        assertFalse(backoff.isJustExhausted());
+    }
+
+    @Test
+    public void success_resetsDelay() {
+        WiFiBackoff backoff = new WiFiBackoff(500, 5000, 4, new Random(1));
+        assertFalse(backoff.onSuccess());
+        backoff.onError();
+        backoff.onError();
+        assertTrue(backoff.onSuccess());
+        assertEquals(0, backoff.getErrors());
+        assertEquals(500, backoff.getDelay());
+    }
+
+    @Test
+    public void jitter_spreadsRetriesOfManyApps() {
+        Random random = new Random(2);
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for (int i = 0; i < 100; i++) {
+            WiFiBackoff backoff = new WiFiBackoff(500, 5000, 4, random);
+            backoff.onError();
+            backoff.onError();
+            int delay = backoff.onError();
+            min = Math.min(min, delay);
+            max = Math.max(max, delay);
+        }
+        assertTrue(max - min > 1000);
+    }
+}
@@ -0,0 +1,25 @@
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class WiFiClientTest {
+
+    @Test
+    public void address_withPortAndPath() {
+        WiFiClient client = new WiFiClient("http://192.168.4.1:8080/module/");
+        assertEquals("192.168.4.1", client.getHost());
+        assertEquals(8080, client.getPort());
+        assertEquals("192.168.4.1:8080", client.getHostHeader());
+        assertEquals("/module", client.getBasePath());
+    }
+
+    @Test
+    public void address_withInvalidPortUsesDefaultPort() {
+        assertEquals(80, new WiFiClient("192.168.4.1:abc").getPort());
+        assertEquals(80, new WiFiClient("192.168.4.1:").getPort());
+        assertEquals(80, new WiFiClient("192.168.4.1:70000").getPort());
+        assertEquals(80, new WiFiClient("192.168.4.1").getPort());
+    }
+}
@@ -0,0 +1,98 @@
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class WiFiDatagramTest {
+
+    @Test
+    public void canSend_onlyDataWithoutResponse() {
+        assertTrue(WiFiDatagram.canSend("b"));
+        assertTrue(WiFiDatagram.canSend("s"));
+        assertTrue(WiFiDatagram.canSend("i"));
+        assertFalse(WiFiDatagram.canSend("c"));
+    }
+
+    @Test
+    public void send_arrivesInOrderAndLateDatagramsAreDropped() throws Exception {
+        try (UdpModuleStandIn module = new UdpModuleStandIn()) {
+            WiFiDatagram datagram = new WiFiDatagram(module.getAddress());
+            assertTrue(datagram.send("b", "1"));
+            assertTrue(datagram.send("s", "2~1"));
+            assertTrue(datagram.send("i", "3~50"));
+            assertEquals("b=1", module.received.poll(4, TimeUnit.SECONDS).data);
+            assertEquals("s=2~1", module.received.poll(4, TimeUnit.SECONDS).data);
+            assertEquals("i=3~50", module.received.poll(4, TimeUnit.SECONDS).data);
+
+            //Datagram of new session is accepted, repeated sequence number is dropped
+            sendRaw(module, "7~5~i=3~10");
+            assertEquals("i=3~10", module.received.poll(4, TimeUnit.SECONDS).data);
+            sendRaw(module, "7~5~i=3~20");
+            sendRaw(module, "7~4~i=3~30");
+            sendRaw(module, "7~6~i=3~40");
+            assertEquals("i=3~40", module.received.poll(4, TimeUnit.SECONDS).data);
+            assertEquals(2, module.dropped);
+
+            datagram.close();
+            assertEquals("3 datagrams sent, 0 failed", datagram.getStatistics());
+        }
+    }
+
+    /**
+     * Compares how long the caller of send is blocked for UDP and http
+     * UDP doesn't wait for the module, http waits for the response of every command
+     * Only run manually, the times depend on the machine
+     */
+    @Ignore("Benchmark")
+    @Test
+    public void send_blocksShorterThanHttp() throws Exception {
+        final int count = 200;
+        long[] udp = new long[count];
+        try (UdpModuleStandIn module = new UdpModuleStandIn()) {
+            WiFiDatagram datagram = new WiFiDatagram(module.getAddress());
+            for (int i = 0; i < count; i++) {
+                long start = System.nanoTime();
+                assertTrue(datagram.send("i", "1~" + i));
+                udp[i] = System.nanoTime() - start;
+                assertNotNull(module.received.poll(4, TimeUnit.SECONDS));
+            }
+            datagram.close();
+        }
+
+        long[] http = new long[count];
+        try (WiFiModuleStandIn module = new WiFiModuleStandIn(false, request -> "OK")) {
+            WiFiClient client = WiFiClient.getClient(module.getAddress());
+            for (int i = 0; i < count; i++) {
+                long start = System.nanoTime();
+                client.request("send?i=1~" + i);
+                http[i] = System.nanoTime() - start;
+            }
+            client.closeIdleConnections();
+        }
+
+        assertTrue("UDP " + median(udp) + " ns, http " + median(http) + " ns", median(udp) < median(http));
+    }
+
+    private static void sendRaw(UdpModuleStandIn module, String message) throws Exception {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        int port = Integer.parseInt(module.getAddress().substring(module.getAddress().indexOf(':') + 1));
+        try (DatagramSocket socket = new DatagramSocket()) {
+            socket.send(new DatagramPacket(bytes, bytes.length, InetAddress.getLoopbackAddress(), port));
+        }
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
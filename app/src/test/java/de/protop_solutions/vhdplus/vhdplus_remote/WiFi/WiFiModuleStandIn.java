@@ -0,0 +1,183 @@
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Local stand-in for the VHDPlus WiFi extension
+ * Answers http requests with keep-alive and optionally accepts the WebSocket push channel
+ */
+class WiFiModuleStandIn implements Closeable {
+
+    /**
+     * Returns answer for http request path (e.g. "/read?hooks=~l_1") or WebSocket message
+     * WebSocket messages are not answered if null is returned
+     */
+    interface Handler {
+        String handle(String request);
+    }
+
+    private final ServerSocket serverSocket;
+    private final boolean webSocket;
+    private final Handler handler;
+    private final List<Socket> clients = Collections.synchronizedList(new ArrayList<>());
+    private volatile OutputStream webSocketOut;
+
+    //Requests and messages in order of arrival
+    final List<String> received = Collections.synchronizedList(new ArrayList<>());
+
+    WiFiModuleStandIn(boolean webSocket, Handler handler) throws IOException {
+        this.webSocket = webSocket;
+        this.handler = handler;
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptThread = new Thread(() -> {
+            try {
+                while (true) {
+                    Socket socket = serverSocket.accept();
+                    clients.add(socket);
+                    Thread t = new Thread(() -> serve(socket));
+                    t.setDaemon(true);
+                    t.start();
+                }
+            } catch (IOException ignored) { }
+        });
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    /**
+     * Returns address like it is entered in the connect activity
+     */
+    String getAddress() {
+        return "127.0.0.1:" + serverSocket.getLocalPort();
+    }
+
+    /**
+     * Pushes message to connected WebSocket client
+     */
+    void push(String message) throws IOException {
+        writeFrame(webSocketOut, 0x1, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Closes WebSocket connection like a restarted module
+     */
+    void dropWebSocket() throws IOException {
+        writeFrame(webSocketOut, 0x8, new byte[0]);
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        synchronized (clients) {
+            for (Socket s : clients) s.close();
+        }
+    }
+
+    private void serve(Socket socket) {
+        try {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+            while (true) {
+                String requestLine = readLine(in);
+                String path = requestLine.split(" ")[1];
+                String key = null;
+                for (String header; (header = readLine(in)).length() > 0; ) {
+                    if (header.toLowerCase().startsWith("sec-websocket-key:"))
+                        key = header.substring(header.indexOf(':') + 1).trim();
+                }
+                if (path.equals(WiFiSocket.PATH) && key != null) {
+                    if (!webSocket) {
+                        writeResponse(out, "404 Not Found", "");
+                        continue;
+                    }
+                    String accept = Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-1")
+                            .digest((key + "258EAFA5-E914-47DA-95CA-C5AB0DC85B11").getBytes(StandardCharsets.US_ASCII)));
+                    out.write(("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\n" +
+                            "Connection: Upgrade\r\nSec-WebSocket-Accept: " + accept + "\r\n\r\n")
+                            .getBytes(StandardCharsets.US_ASCII));
+                    out.flush();
+                    webSocketOut = out;
+                    serveWebSocket(in, out);
+                    return;
+                }
+                String request = URLDecoder.decode(path, "UTF-8");
+                received.add(request);
+                writeResponse(out, "200 OK", handler.handle(request));
+            }
+        } catch (Exception ignored) {
+        }
+    }
+
+    private void serveWebSocket(InputStream in, OutputStream out) throws IOException {
+        while (true) {
+            int b0 = readByte(in);
+            int b1 = readByte(in);
+            int opcode = b0 & 0x0F;
+            int length = b1 & 0x7F;
+            if (length == 126) length = (readByte(in) << 8) | readByte(in);
+            byte[] mask = new byte[4];
+            for (int i = 0; i < 4; i++) mask[i] = (byte) readByte(in);
+            byte[] payload = new byte[length];
+            for (int i = 0; i < length; i++) payload[i] = (byte) (readByte(in) ^ mask[i % 4]);
+            if (opcode == 0x8) return;
+            if (opcode == 0x9) writeFrame(out, 0xA, payload);
+            if (opcode == 0x1) {
+                String message = new String(payload, StandardCharsets.UTF_8);
+                received.add(message);
+                String answer = handler.handle(message);
+                if (answer != null) writeFrame(out, 0x1, answer.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private static synchronized void writeFrame(OutputStream out, int opcode, byte[] payload) throws IOException {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        frame.write(0x80 | opcode);
+        if (payload.length < 126) frame.write(payload.length);
+        else {
+            frame.write(126);
+            frame.write(payload.length >> 8);
+            frame.write(payload.length);
+        }
+        frame.write(payload, 0, payload.length);
+        out.write(frame.toByteArray());
+        out.flush();
+    }
+
+    private static void writeResponse(OutputStream out, String status, String body) throws IOException {
+        byte[] b = body.getBytes(StandardCharsets.UTF_8);
+        out.write(("HTTP/1.1 " + status + "\r\nContent-Length: " + b.length + "\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII));
+        out.write(b);
+        out.flush();
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) throw new EOFException();
+        return b;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int b;
+        while ((b = readByte(in)) != '\n') if (b != '\r') sb.append((char) b);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,72 @@
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class WiFiRttTest {
+
+    @Test
+    public void estimate_followsSamplesLikeTcp() {
+        WiFiRtt rtt = new WiFiRtt();
+        assertEquals(-1, rtt.getRtt());
+        assertEquals(WiFiRtt.INITIAL_TIMEOUT, rtt.getTimeout());
+
+        //Slow mobile connection: srtt 800, variance 400 -> 800 + 4 * 400
+        rtt.addSample(800);
+        assertEquals(800, rtt.getRtt());
+        assertEquals(2400, rtt.getTimeout());
+        for (int i = 0; i < 50; i++) rtt.addSample(800);
+        assertEquals(800, rtt.getRtt());
+        assertTrue(rtt.getTimeout() < 900);
+
+        //Fast local network never goes below the minimum timeout
+        WiFiRtt lan = new WiFiRtt();
+        for (int i = 0; i < 50; i++) lan.addSample(5);
+        assertEquals(5, lan.getRtt());
+        assertEquals(WiFiRtt.MIN_TIMEOUT, lan.getTimeout());
+    }
+
+    @Test
+    public void timeout_doublesUpToMaximum() {
+        WiFiRtt rtt = new WiFiRtt();
+        rtt.addSample(5);
+        int timeout = rtt.getTimeout();
+        rtt.onTimeout();
+        assertEquals(2 * timeout, rtt.getTimeout());
+        for (int i = 0; i < 10; i++) rtt.onTimeout();
+        assertEquals(WiFiRtt.MAX_TIMEOUT, rtt.getTimeout());
+        rtt.addSample(5);
+        assertEquals(WiFiRtt.MIN_TIMEOUT, rtt.getTimeout());
+    }
+
+    @Test
+    public void client_detectsLostResponseFasterThanFixedTimeout() throws Exception {
+        try (WiFiModuleStandIn module = new WiFiModuleStandIn(false, request -> {
+            if (request.contains("hang")) {
+                try {
+                    Thread.sleep(3000);
+                } catch (InterruptedException ignored) { }
+            }
+            return "OK";
+        })) {
+            WiFiClient client = new WiFiClient(module.getAddress());
+            for (int i = 0; i < 20; i++) assertEquals("OK", client.request("send?b=1"));
+            assertEquals(WiFiRtt.MIN_TIMEOUT, client.getTimeout());
+
+            long start = System.nanoTime();
+            try {
+                client.request("send?b=hang");
+                fail();
+            } catch (IOException expected) { }
+            long waited = (System.nanoTime() - start) / 1000000;
+            assertTrue("waited " + waited + " ms", waited < WiFiRtt.INITIAL_TIMEOUT);
+            //Slow module received the request, so it is not sent again on a new connection
+            assertEquals(1, Collections.frequency(module.received, "/send?b=hang"));
+            assertEquals(2 * WiFiRtt.MIN_TIMEOUT, client.getTimeout());
+        }
+    }
+}
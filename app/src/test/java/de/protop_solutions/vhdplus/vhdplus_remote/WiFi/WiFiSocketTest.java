@@ -0,0 +1,49 @@
+package de.protop_solutions.vhdplus.vhdplus_remote.WiFi;
+
+import org.junit.Test;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class WiFiSocketTest {
+
+    @Test
+    public void acceptKey_matchesRfcExample() {
+        assertEquals("s3pPLMBiTxaQ9kYGzzhZRbK+xOo=", WiFiSocket.acceptKey("dGhlIHNhbXBsZSBub25jZQ=="));
+    }
+
+    @Test
+    public void pushChannel_subscribesSendsAndReceivesPushedValues() throws Exception {
+        LinkedBlockingQueue<String> messages = new LinkedBlockingQueue<>();
+        try (WiFiModuleStandIn module = new WiFiModuleStandIn(true,
+                request -> request.startsWith("hooks=") ? "V~l_1~1~d_2~20" : "OK")) {
+            WiFiSocket socket = new WiFiSocket(module.getAddress(),
+                    (response, error) -> messages.add(error ? "error" : response));
+            assertTrue(socket.connect(4000));
+
+            socket.send("hooks=~l_1~d_2");
+            assertEquals("V~l_1~1~d_2~20", messages.poll(4, TimeUnit.SECONDS));
+            socket.send("b=3");
+            assertEquals("OK", messages.poll(4, TimeUnit.SECONDS));
+            assertEquals("b=3", module.received.get(1));
+
+            module.push("V~d_2~21");
+            assertEquals("V~d_2~21", messages.poll(4, TimeUnit.SECONDS));
+
+            module.dropWebSocket();
+            assertEquals("error", messages.poll(4, TimeUnit.SECONDS));
+            assertFalse(socket.isOpen());
+        }
+    }
+
+    @Test
+    public void connect_returnsFalseIfModuleHasNoPushChannel() throws Exception {
+        try (WiFiModuleStandIn module = new WiFiModuleStandIn(false, request -> "R~1")) {
+            WiFiSocket socket = new WiFiSocket(module.getAddress(), (response, error) -> { });
+            assertFalse(socket.connect(4000));
+            assertFalse(socket.isOpen());
+        }
+    }
+}